@@ -14,6 +14,7 @@ plugins {
 	id("sandpolis-module")
 	id("sandpolis-protobuf")
 	id("sandpolis-publish")
+	id("me.champeau.jmh") version "0.6.5"
 }
 
 dependencies {
@@ -29,9 +30,21 @@ dependencies {
 	api("io.netty:netty-handler:4.1.65.Final")
 	api("io.netty:netty-resolver-dns:4.1.65.Final")
 
+	// https://github.com/openjdk/jmh
+	jmh("org.openjdk.jmh:jmh-core:1.32")
+	jmhAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.32")
+
 	if (project.getParent() == null) {
 		implementation("com.sandpolis:core.instance:+")
 	} else {
 		implementation(project(":module:com.sandpolis.core.instance"))
 	}
 }
+
+jmh {
+	// Benchmarks are selected with -PjmhInclude=<regex>
+	if (project.hasProperty("jmhInclude")) {
+		includes.add(project.property("jmhInclude") as String)
+	}
+	profilers.add("gc")
+}
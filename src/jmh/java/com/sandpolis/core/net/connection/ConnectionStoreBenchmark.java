@@ -0,0 +1,67 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.connection;
+
+import static com.sandpolis.core.net.connection.ConnectionStore.ConnectionStore;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sandpolis.core.instance.state.ConnectionOid;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Measures {@link ConnectionStore#getByCvid(int)} as the number of indexed
+ * connections grows. The lookup cost should stay flat.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionStoreBenchmark {
+
+	@Param({ "10", "1000", "10000" })
+	private int connections;
+
+	private int[] cvids;
+
+	@Setup
+	public void setup() {
+		cvids = new int[connections];
+		for (int i = 0; i < connections; i++) {
+			// Any distinct positive values will do
+			cvids[i] = (i + 1) << 8;
+
+			var connection = ConnectionStore.create(new EmbeddedChannel());
+			connection.set(ConnectionOid.REMOTE_CVID, cvids[i]);
+			ConnectionStore.index(connection);
+		}
+	}
+
+	@Benchmark
+	public Connection getByCvid() {
+		return ConnectionStore.getByCvid(cvids[ThreadLocalRandom.current().nextInt(connections)]).get();
+	}
+}
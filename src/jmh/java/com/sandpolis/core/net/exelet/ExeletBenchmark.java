@@ -0,0 +1,162 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.exelet;
+
+import static com.sandpolis.core.net.connection.ConnectionStore.ConnectionStore;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.MessageLiteOrBuilder;
+import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.connection.Connection;
+import com.sandpolis.core.net.msg.MsgNetwork.EV_EndpointClosed;
+import com.sandpolis.core.net.msg.MsgNetwork.RQ_Connection;
+import com.sandpolis.core.net.msg.MsgNetwork.RQ_DirectConnection;
+import com.sandpolis.core.net.msg.MsgNetwork.RQ_Ping;
+import com.sandpolis.core.net.msg.MsgNetwork.RS_Ping;
+import com.sandpolis.core.net.util.MsgUtil;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
+
+/**
+ * Measures the latency of dispatching a message from an {@link ExeletStore}
+ * dispatch table to a handler of each TYPE, including payload parsing and
+ * sending the response.
+ *
+ * <p>
+ * {@link #type1MethodHandle()} calls the TYPE 1 handler the way
+ * {@link ExeletMethod} did before handlers were bound with
+ * {@link java.lang.invoke.LambdaMetafactory}: through non-constant
+ * {@link MethodHandle}s for both {@code parseFrom} and the handler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExeletBenchmark {
+
+	public static final class BenchmarkExelet extends Exelet {
+
+		@Handler(auth = false)
+		public static void type1(RQ_Ping rq) {
+		}
+
+		@Handler(auth = false)
+		public static MessageLiteOrBuilder type2(RQ_Connection rq) {
+			return RS_Ping.newBuilder();
+		}
+
+		@Handler(auth = false)
+		public static void type3(ExeletContext context, EV_EndpointClosed ev) {
+			context.reply(RS_Ping.newBuilder());
+		}
+
+		@Handler(auth = false)
+		public static MessageLiteOrBuilder type4(ExeletContext context, RQ_DirectConnection rq) {
+			return RS_Ping.newBuilder();
+		}
+	}
+
+	private IntObjectMap<ExeletMethod> table;
+
+	private Connection connection;
+
+	private MSG type1;
+
+	private MSG type2;
+
+	private MSG type3;
+
+	private MSG type4;
+
+	private MethodHandle handle;
+
+	private MethodHandle parseFrom;
+
+	@Setup
+	public void setup() throws Exception {
+		table = new IntObjectHashMap<>();
+		for (var method : BenchmarkExelet.class.getMethods()) {
+			if (method.getAnnotation(Exelet.Handler.class) != null) {
+				var exeletMethod = new ExeletMethod(method);
+				table.put(exeletMethod.type, exeletMethod);
+			}
+		}
+
+		// Responses are discarded rather than queued
+		connection = ConnectionStore.create(new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+			@Override
+			public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+				ReferenceCountUtil.release(msg);
+				promise.setSuccess();
+			}
+		}));
+
+		handle = MethodHandles.publicLookup().unreflect(BenchmarkExelet.class.getMethod("type1", RQ_Ping.class));
+		parseFrom = MethodHandles.publicLookup().unreflect(RQ_Ping.class.getMethod("parseFrom", ByteString.class));
+
+		type1 = MsgUtil.rq(RQ_Ping.newBuilder()).build();
+		type2 = MsgUtil.rq(RQ_Connection.newBuilder().setHost("127.0.0.1").setPort(8768)).build();
+		type3 = MsgUtil.rq(EV_EndpointClosed.newBuilder().setCvid(123)).build();
+		type4 = MsgUtil.rq(RQ_DirectConnection.newBuilder().setCvid(123).setPort(8768)).build();
+	}
+
+	private void dispatch(MSG msg) {
+		table.get(msg.getPayloadType()).accept(connection, msg);
+	}
+
+	@Benchmark
+	public void type1() {
+		dispatch(type1);
+	}
+
+	@Benchmark
+	public void type1MethodHandle() throws Throwable {
+		table.get(type1.getPayloadType());
+		handle.invoke(parseFrom.invoke(type1.getPayload()));
+	}
+
+	@Benchmark
+	public void type2() {
+		dispatch(type2);
+	}
+
+	@Benchmark
+	public void type3() {
+		dispatch(type3);
+	}
+
+	@Benchmark
+	public void type4() {
+		dispatch(type4);
+	}
+}
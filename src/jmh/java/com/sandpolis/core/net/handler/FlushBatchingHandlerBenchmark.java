@@ -0,0 +1,119 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Measures the cost per message of writing and flushing small messages to a
+ * loopback TCP connection with and without a {@link FlushBatchingHandler}.
+ * Without batching, every message costs a write syscall.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlushBatchingHandlerBenchmark {
+
+	private static final int MESSAGES = 64;
+
+	/**
+	 * The maximum batch size or 0 to disable batching.
+	 */
+	@Param({ "0", "16" })
+	private int batchSize;
+
+	private EventLoopGroup group;
+
+	private Channel server;
+
+	private Channel client;
+
+	private ByteBuf message;
+
+	@Setup
+	public void setup() throws Exception {
+		group = new NioEventLoopGroup(2);
+		message = PooledByteBufAllocator.DEFAULT.directBuffer(64).writeZero(64);
+
+		server = new ServerBootstrap().group(group).channel(NioServerSocketChannel.class)
+				.childHandler(new ChannelInboundHandlerAdapter() {
+					@Override
+					public void channelRead(ChannelHandlerContext ctx, Object msg) {
+						ReferenceCountUtil.release(msg);
+					}
+
+					@Override
+					public boolean isSharable() {
+						return true;
+					}
+				}).bind("127.0.0.1", 0).sync().channel();
+
+		client = new Bootstrap().group(group).channel(NioSocketChannel.class)
+				.handler(new ChannelInitializer<Channel>() {
+					@Override
+					protected void initChannel(Channel ch) {
+						if (batchSize > 0)
+							ch.pipeline().addLast(new FlushBatchingHandler(batchSize, 500));
+					}
+				}).connect(server.localAddress()).sync().channel();
+	}
+
+	@TearDown
+	public void teardown() throws Exception {
+		client.close().sync();
+		server.close().sync();
+		group.shutdownGracefully().sync();
+		message.release();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES)
+	public void writeAndFlush() throws Exception {
+		// Write from the event loop like a handler would
+		client.eventLoop().submit(() -> {
+			ChannelFuture last = null;
+			for (int i = 0; i < MESSAGES; i++)
+				last = client.writeAndFlush(message.retainedDuplicate());
+			return last;
+		}).get().sync();
+	}
+}
@@ -0,0 +1,79 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.protobuf.ByteString;
+import com.sandpolis.core.net.Message.MSG;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+
+/**
+ * Compares {@link MsgDecoder} with the
+ * {@link io.netty.handler.codec.protobuf.ProtobufDecoder} it replaced, which
+ * copies a direct frame into an array and then copies the payload out of that
+ * array again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MsgDecoderBenchmark {
+
+	/**
+	 * The size of the payload in bytes.
+	 */
+	@Param({ "16", "16384" })
+	private int size;
+
+	private ByteBuf frame;
+
+	@Setup
+	public void setup() {
+		var msg = MSG.newBuilder().setTo(123).setFrom(456).setId(789).setPayloadType(42)
+				.setPayload(ByteString.copyFrom(new byte[size])).build();
+
+		var bytes = msg.toByteArray();
+		frame = PooledByteBufAllocator.DEFAULT.directBuffer(bytes.length).writeBytes(bytes);
+	}
+
+	@TearDown
+	public void teardown() {
+		frame.release();
+	}
+
+	@Benchmark
+	public MSG decode() throws Exception {
+		return MsgDecoder.decode(frame);
+	}
+
+	@Benchmark
+	public MSG decodeProtobuf() throws Exception {
+		return MSG.parser().parseFrom(ByteBufUtil.getBytes(frame));
+	}
+}
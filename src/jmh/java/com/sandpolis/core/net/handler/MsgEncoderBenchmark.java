@@ -0,0 +1,94 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.protobuf.ByteString;
+import com.sandpolis.core.net.Message.MSG;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.protobuf.ProtobufEncoder;
+import io.netty.handler.codec.protobuf.ProtobufVarint32LengthFieldPrepender;
+
+/**
+ * Compares {@link MsgEncoder} with the {@link ProtobufEncoder} and
+ * {@link ProtobufVarint32LengthFieldPrepender} it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MsgEncoderBenchmark {
+
+	/**
+	 * The size of the payload in bytes.
+	 */
+	@Param({ "16", "16384" })
+	private int size;
+
+	private MSG msg;
+
+	private EmbeddedChannel encoder;
+
+	private EmbeddedChannel protobuf;
+
+	@Setup
+	public void setup() {
+		msg = MSG.newBuilder().setTo(123).setFrom(456).setId(789).setPayloadType(42)
+				.setPayload(ByteString.copyFrom(new byte[size])).build();
+
+		encoder = new EmbeddedChannel(new MsgEncoder());
+		protobuf = new EmbeddedChannel(new ProtobufVarint32LengthFieldPrepender(), new ProtobufEncoder());
+	}
+
+	@TearDown
+	public void teardown() {
+		encoder.finishAndReleaseAll();
+		protobuf.finishAndReleaseAll();
+	}
+
+	private static int encode(EmbeddedChannel channel, MSG msg) {
+		channel.writeOutbound(msg);
+
+		ByteBuf frame = channel.readOutbound();
+		try {
+			return frame.readableBytes();
+		} finally {
+			frame.release();
+		}
+	}
+
+	@Benchmark
+	public int encode() {
+		return encode(encoder, msg);
+	}
+
+	@Benchmark
+	public int encodeProtobuf() {
+		return encode(protobuf, msg);
+	}
+}
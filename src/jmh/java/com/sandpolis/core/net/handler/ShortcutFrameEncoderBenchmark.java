@@ -0,0 +1,109 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Compares {@link ShortcutFrameEncoder#shortcut(ByteBuf)} with copying each
+ * frame into a new unpooled heap buffer, which is what it used to do. Run with
+ * the gc profiler to see the allocation rate of each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShortcutFrameEncoderBenchmark {
+
+	/**
+	 * The size of each frame in bytes.
+	 */
+	@Param({ "64", "16384" })
+	private int size;
+
+	private byte[] body;
+
+	private EmbeddedChannel channel;
+
+	private ShortcutFrameEncoder encoder;
+
+	@Setup
+	public void setup() {
+		body = new byte[size];
+		encoder = new ShortcutFrameEncoder();
+
+		// Written frames are released instead of queued
+		channel = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+			@Override
+			public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+				ReferenceCountUtil.release(msg);
+				promise.setSuccess();
+			}
+		}, encoder);
+	}
+
+	@TearDown
+	public void teardown() {
+		channel.finishAndReleaseAll();
+	}
+
+	private ByteBuf frame() {
+		return channel.alloc().directBuffer(size).writeBytes(body);
+	}
+
+	@Benchmark
+	public void shortcut() {
+		encoder.shortcut(frame());
+	}
+
+	@Benchmark
+	public void shortcutCopy() {
+		var frame = frame();
+		try {
+			int length = frame.readableBytes();
+			var out = Unpooled.buffer(length + 5);
+
+			// The length prefix as a varint
+			int value = length;
+			while ((value & ~0x7F) != 0) {
+				out.writeByte((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.writeByte(value);
+
+			channel.writeAndFlush(out.writeBytes(frame));
+		} finally {
+			frame.release();
+		}
+	}
+}
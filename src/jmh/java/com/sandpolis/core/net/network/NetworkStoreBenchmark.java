@@ -0,0 +1,141 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.network;
+
+import static com.sandpolis.core.net.connection.ConnectionStore.ConnectionStore;
+import static com.sandpolis.core.net.network.NetworkStore.NetworkStore;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.sandpolis.core.instance.Metatypes.InstanceFlavor;
+import com.sandpolis.core.instance.Metatypes.InstanceType;
+import com.sandpolis.core.instance.state.ConnectionOid;
+import com.sandpolis.core.net.connection.Connection;
+import com.sandpolis.core.net.connection.ConnectionStore.SockEstablishedEvent;
+import com.sandpolis.core.net.msg.MsgNetwork.EV_NetworkDelta;
+import com.sandpolis.core.net.msg.MsgNetwork.LinkType;
+import com.sandpolis.core.net.util.CvidUtil;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Measures the throughput of next-hop lookups from many threads at once, both
+ * on a quiet network and while another thread keeps changing the topology.
+ *
+ * <p>
+ * The local instance is a client with a few direct server links. Every other
+ * node is only known through a delta, so each lookup resolves a remote
+ * destination.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkStoreBenchmark {
+
+	private static final int SERVERS = 4;
+
+	/**
+	 * The number of remote nodes.
+	 */
+	@Param({ "100", "10000" })
+	private int nodes;
+
+	private int[] destinations;
+
+	private boolean linked;
+
+	@Setup
+	public void setup() {
+		NetworkStore.init(config -> {
+			config.cvid = CvidUtil.cvid(InstanceType.CLIENT, InstanceFlavor.GENERIC);
+		});
+
+		var servers = new int[SERVERS];
+		for (int i = 0; i < SERVERS; i++) {
+			servers[i] = ((i + 1) << 8) | InstanceType.SERVER.getNumber();
+
+			Connection connection = ConnectionStore.create(new EmbeddedChannel());
+			connection.set(ConnectionOid.REMOTE_CVID, servers[i]);
+			NetworkStore.onSockEstablished(new SockEstablishedEvent(connection));
+		}
+
+		var delta = EV_NetworkDelta.newBuilder();
+		destinations = new int[nodes];
+		for (int i = 0; i < nodes; i++) {
+			destinations[i] = ((i + 1000) << 8) | InstanceType.AGENT.getNumber();
+
+			delta.addNodeAddedBuilder().setCvid(destinations[i]);
+			delta.addLinkAddedBuilder().setCvid1(servers[i % SERVERS]).setCvid2(destinations[i])
+					.setLink(LinkType.CONTROL_TCP);
+		}
+		NetworkStore.updateNetwork(delta.build());
+
+		// Wait for the topology to be published
+		while (NetworkStore.nextHop(destinations[nodes - 1]) == null)
+			Thread.onSpinWait();
+	}
+
+	private Object lookup() {
+		return NetworkStore.nextHop(destinations[ThreadLocalRandom.current().nextInt(nodes)]);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Object nextHop() {
+		return lookup();
+	}
+
+	@Benchmark
+	@Group("churn")
+	@GroupThreads(3)
+	public Object churnNextHop() {
+		return lookup();
+	}
+
+	@Benchmark
+	@Group("churn")
+	@GroupThreads(1)
+	public void churnUpdate() {
+		// Toggle a redundant link between two remote nodes
+		var delta = EV_NetworkDelta.newBuilder();
+		if (linked)
+			delta.addLinkRemovedBuilder().setCvid1(destinations[0]).setCvid2(destinations[nodes - 1])
+					.setLink(LinkType.TRANSPORT_TCP);
+		else
+			delta.addLinkAddedBuilder().setCvid1(destinations[0]).setCvid2(destinations[nodes - 1])
+					.setLink(LinkType.TRANSPORT_TCP);
+		linked = !linked;
+
+		NetworkStore.updateNetwork(delta.build());
+
+		// Don't let the update thread's queue grow without bound
+		Blackhole.consumeCPU(100_000);
+	}
+}
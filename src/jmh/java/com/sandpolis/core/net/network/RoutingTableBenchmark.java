@@ -0,0 +1,106 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.network;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.graph.Graphs;
+import com.google.common.graph.ImmutableNetwork;
+import com.google.common.graph.MutableNetwork;
+import com.google.common.graph.NetworkBuilder;
+
+/**
+ * Measures the work done each time {@link NetworkStore} publishes a snapshot:
+ * copying the local graph and computing a {@link RoutingTable} over the local
+ * and remote graphs.
+ *
+ * <p>
+ * The source is a client with a few server links. The remote nodes are split
+ * between the servers, and the servers are linked to each other.
+ *
+ * <p>
+ * {@link #linkLost()} measures the incremental update that is published when
+ * one of the source's own links is lost, for comparison with {@link #publish()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingTableBenchmark {
+
+	private static final int SOURCE = 1;
+
+	private static final int SERVERS = 4;
+
+	/**
+	 * The number of remote nodes.
+	 */
+	@Param({ "100", "1000", "10000" })
+	private int nodes;
+
+	private MutableNetwork<Integer, Object> local;
+
+	private MutableNetwork<Integer, Object> remote;
+
+	/**
+	 * A copy of {@link #local} without {@link #lost}.
+	 */
+	private MutableNetwork<Integer, Object> reduced;
+
+	private Object lost;
+
+	private RoutingTable<Object> table;
+
+	@Setup
+	public void setup() {
+		local = NetworkBuilder.undirected().allowsParallelEdges(true).build();
+		remote = NetworkBuilder.undirected().allowsParallelEdges(true).build();
+
+		for (int server = 2; server < 2 + SERVERS; server++) {
+			local.addEdge(SOURCE, server, new Object());
+
+			for (int other = 2; other < server; other++)
+				remote.addEdge(server, other, new Object());
+		}
+
+		for (int i = 0; i < nodes; i++)
+			remote.addEdge(2 + i % SERVERS, 100 + i, new Object());
+
+		table = RoutingTable.compute(local, remote, SOURCE, link -> 1, link -> 1);
+
+		reduced = Graphs.copyOf(local);
+		lost = local.edgesConnecting(SOURCE, 2).iterator().next();
+		reduced.removeEdge(lost);
+	}
+
+	@Benchmark
+	public RoutingTable<Object> publish() {
+		return RoutingTable.compute(ImmutableNetwork.copyOf(local), remote, SOURCE, link -> 1, link -> 1);
+	}
+
+	@Benchmark
+	public RoutingTable<Object> linkLost() {
+		return table.withoutLink(reduced, remote, SOURCE, lost, link -> 1, link -> 1);
+	}
+}
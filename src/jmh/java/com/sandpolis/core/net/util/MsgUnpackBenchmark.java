@@ -0,0 +1,69 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.protobuf.ByteString;
+import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.msg.MsgNetwork.EV_NetworkDelta;
+
+/**
+ * Compares {@link MsgUtil#unpack(MSG, Class)} with the reflective
+ * {@code parseFrom} lookup it replaced, for a small and a large payload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MsgUnpackBenchmark {
+
+	/**
+	 * The number of nodes in the payload.
+	 */
+	@Param({ "1", "1000" })
+	private int nodes;
+
+	private MSG msg;
+
+	@Setup
+	public void setup() {
+		var delta = EV_NetworkDelta.newBuilder();
+		for (int i = 1; i <= nodes; i++)
+			delta.addNodeAdded(EV_NetworkDelta.NodeAdded.newBuilder().setCvid(i << 8).setParent(1 << 8));
+
+		msg = MsgUtil.ev(1, delta).build();
+	}
+
+	@Benchmark
+	public EV_NetworkDelta unpackReflective() throws Exception {
+		return (EV_NetworkDelta) EV_NetworkDelta.class.getMethod("parseFrom", ByteString.class).invoke(null,
+				msg.getPayload());
+	}
+
+	@Benchmark
+	public EV_NetworkDelta unpackCached() {
+		return MsgUtil.unpack(msg, EV_NetworkDelta.class);
+	}
+}
@@ -0,0 +1,70 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.hash.Hashing;
+import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.msg.MsgNetwork.RQ_Connection;
+
+/**
+ * Compares the cached payload types in {@link MsgUtil} with hashing the type
+ * name on every call, which is what {@link MsgUtil} used to do. Both are
+ * measured alone and as part of a full {@code pack}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MsgUtilBenchmark {
+
+	private final RQ_Connection.Builder payload = RQ_Connection.newBuilder().setHost("127.0.0.1").setPort(8768);
+
+	/**
+	 * The payload type computation that {@link MsgUtil} used to run on every call.
+	 */
+	private static int hashPayloadType(Class<?> messageType) {
+		return Hashing.murmur3_32().hashUnencodedChars(messageType.getName().replaceAll("\\$Builder$", "")).asInt();
+	}
+
+	@Benchmark
+	public int payloadTypeHashed() {
+		return hashPayloadType(payload.getClass());
+	}
+
+	@Benchmark
+	public int payloadTypeCached() {
+		return MsgUtil.getPayloadType(payload);
+	}
+
+	@Benchmark
+	public MSG.Builder packHashed() {
+		return MSG.newBuilder().setPayload(payload.build().toByteString())
+				.setPayloadType(hashPayloadType(payload.getClass()));
+	}
+
+	@Benchmark
+	public MSG.Builder packCached() {
+		return MsgUtil.pack(MSG.newBuilder(), payload);
+	}
+}
@@ -37,6 +37,12 @@ public final class ChannelConstant {
 	 */
 	public static final AttributeKey<Promise<Void>> HANDSHAKE_FUTURE = AttributeKey.valueOf("handshake_future");
 
+	/**
+	 * The amount of time in milliseconds the remote host asked this instance to
+	 * wait before reconnecting.
+	 */
+	public static final AttributeKey<Integer> RETRY_AFTER = AttributeKey.valueOf("retry_after");
+
 	/**
 	 * The {@link Connection} associated with the {@link Channel}.
 	 */
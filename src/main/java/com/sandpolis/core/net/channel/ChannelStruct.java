@@ -14,7 +14,9 @@ import java.security.spec.InvalidKeySpecException;
 
 import com.sandpolis.core.foundation.ConfigStruct;
 import com.sandpolis.core.foundation.util.CertUtil;
+import com.sandpolis.core.net.Channel.ChannelCompression;
 import com.sandpolis.core.net.Channel.ChannelTransportProtocol;
+import com.sandpolis.core.net.config.CfgNet;
 
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
@@ -34,8 +36,55 @@ public final class ChannelStruct {
 
 	public boolean requirePeerCertificate;
 
+	/**
+	 * The frame compression to request during the handshake. Peer connections
+	 * don't perform a CVID handshake, so they ignore this value.
+	 */
+	public ChannelCompression compression = ChannelCompression.NONE;
+
+	/**
+	 * The minimum size in bytes of a frame that is worth compressing.
+	 */
+	public int compressionThreshold = CfgNet.COMPRESSION_THRESHOLD.value().orElse(512);
+
+	/**
+	 * The maximum number of flushes to coalesce into a single flush. A value of 0
+	 * disables flush batching.
+	 */
+	public int flushBatchSize = CfgNet.FLUSH_BATCH_SIZE.value().orElse(0);
+
+	/**
+	 * The maximum amount of time a flush can be deferred in microseconds. This
+	 * value is only applicable when flush batching is enabled.
+	 */
+	public int flushMaxDelay = CfgNet.FLUSH_MAX_DELAY.value().orElse(500);
+
+	/**
+	 * The amount of time in milliseconds the connection can go without receiving
+	 * anything before a ping is sent. A value of 0 disables pings.
+	 */
+	public int pingInterval = CfgNet.PING_INTERVAL.value().orElse(5000);
+
+	/**
+	 * The amount of time in milliseconds to wait for a ping response before the
+	 * connection is closed.
+	 */
+	public int pingTimeout = CfgNet.PING_TIMEOUT.value().orElse(15000);
+
 	public SslContextBuilder sslBuilder;
 
+	/**
+	 * The number of bytes in the outbound buffer above which the channel becomes
+	 * unwritable.
+	 */
+	public int writeBufferHigh = CfgNet.WRITE_BUFFER_HIGH.value().orElse(64 * 1024);
+
+	/**
+	 * The number of bytes in the outbound buffer below which the channel becomes
+	 * writable again.
+	 */
+	public int writeBufferLow = CfgNet.WRITE_BUFFER_LOW.value().orElse(32 * 1024);
+
 	public void serverTlsSelfSigned() {
 		sslBuilder = SslContextBuilder.forServer(CertUtil.getDefaultKey(), CertUtil.getDefaultCert())
 				.protocols("TLSv1.3");
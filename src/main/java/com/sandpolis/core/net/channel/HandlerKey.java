@@ -11,33 +11,43 @@ package com.sandpolis.core.net.channel;
 
 import com.sandpolis.core.net.cvid.AbstractCvidHandler;
 import com.sandpolis.core.net.exelet.ExeletHandler;
+import com.sandpolis.core.net.handler.FlushBatchingHandler;
+import com.sandpolis.core.net.handler.FrameCompressionHandler;
 import com.sandpolis.core.net.handler.ManagementHandler;
+import com.sandpolis.core.net.handler.MsgDecoder;
+import com.sandpolis.core.net.handler.MsgEncoder;
+import com.sandpolis.core.net.handler.PingHandler;
+import com.sandpolis.core.net.handler.RelayHandler;
 import com.sandpolis.core.net.handler.ResponseHandler;
 import com.sandpolis.core.net.handler.ShortcutFrameEncoder;
-import com.sandpolis.core.net.stream.InboundStreamAdapter;
+import com.sandpolis.core.net.stream.StreamDemuxHandler;
 
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelPipeline;
-import io.netty.handler.codec.protobuf.ProtobufDecoder;
-import io.netty.handler.codec.protobuf.ProtobufEncoder;
 import io.netty.handler.codec.protobuf.ProtobufVarint32FrameDecoder;
 import io.netty.handler.logging.LoggingHandler;
+import io.netty.handler.timeout.IdleStateHandler;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.traffic.ChannelTrafficShapingHandler;
 
 public final class HandlerKey<E extends ChannelHandler> {
 
+	public static final HandlerKey<FrameCompressionHandler> COMPRESSION = new HandlerKey<>("CompressionHandler");
 	public static final HandlerKey<AbstractCvidHandler> CVID = new HandlerKey<>("CvidHandler");
 	public static final HandlerKey<ExeletHandler> EXELET = new HandlerKey<>("ExeletHandler");
+	public static final HandlerKey<FlushBatchingHandler> FLUSH = new HandlerKey<>("FlushHandler");
 	public static final HandlerKey<ProtobufVarint32FrameDecoder> FRAME_DECODER = new HandlerKey<>("FrameDecoder");
 	public static final HandlerKey<ShortcutFrameEncoder> FRAME_ENCODER = new HandlerKey<>("FrameEncoder");
+	public static final HandlerKey<IdleStateHandler> IDLE = new HandlerKey<>("IdleHandler");
 	public static final HandlerKey<LoggingHandler> LOG_DECODED = new HandlerKey<>("DecodedLogHandler");
 	public static final HandlerKey<LoggingHandler> LOG_RAW = new HandlerKey<>("RawLogHandler");
 	public static final HandlerKey<ManagementHandler> MANAGEMENT = new HandlerKey<>("EventHandler");
-	public static final HandlerKey<ProtobufDecoder> PROTO_DECODER = new HandlerKey<>("ProtoDecoder");
-	public static final HandlerKey<ProtobufEncoder> PROTO_ENCODER = new HandlerKey<>("ProtoEncoder");
+	public static final HandlerKey<PingHandler> PING = new HandlerKey<>("PingHandler");
+	public static final HandlerKey<MsgDecoder> PROTO_DECODER = new HandlerKey<>("ProtoDecoder");
+	public static final HandlerKey<MsgEncoder> PROTO_ENCODER = new HandlerKey<>("ProtoEncoder");
+	public static final HandlerKey<RelayHandler> RELAY = new HandlerKey<>("RelayHandler");
 	public static final HandlerKey<ResponseHandler> RESPONSE = new HandlerKey<>("ResponseHandler");
-	public static final HandlerKey<InboundStreamAdapter> STREAM = new HandlerKey<>("StreamAdapter");
+	public static final HandlerKey<StreamDemuxHandler> STREAM = new HandlerKey<>("StreamHandler");
 	public static final HandlerKey<SslHandler> TLS = new HandlerKey<>("TlsHandler");
 	public static final HandlerKey<ChannelTrafficShapingHandler> TRAFFIC = new HandlerKey<>("TrafficHandler");
 
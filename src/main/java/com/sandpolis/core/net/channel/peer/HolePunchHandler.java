@@ -14,13 +14,13 @@ import java.net.ProtocolException;
 import com.sandpolis.core.foundation.util.RandUtil;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GlobalEventExecutor;
 import io.netty.util.concurrent.ProgressivePromise;
+import io.netty.util.ReferenceCountUtil;
 
 /**
  * This handler ensures a UDP "connection" is bidirectional by repeatedly
@@ -87,7 +87,7 @@ public class HolePunchHandler extends ChannelInboundHandlerAdapter {
 			try {
 				for (int i = 0; i < RQ_MAX; i++) {
 					lastRequest = RandUtil.nextInt();
-					ctx.writeAndFlush(Unpooled.buffer(Integer.BYTES * 2).writeInt(RQ_MAGIC).writeInt(lastRequest));
+					ctx.writeAndFlush(ctx.alloc().ioBuffer(Integer.BYTES * 2).writeInt(RQ_MAGIC).writeInt(lastRequest));
 
 					Thread.sleep(RQ_TIMEOUT);
 				}
@@ -105,13 +105,19 @@ public class HolePunchHandler extends ChannelInboundHandlerAdapter {
 
 	@Override
 	public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-		ByteBuf buffer = (ByteBuf) msg;
+		try {
+			read(ctx, (ByteBuf) msg);
+		} finally {
+			ReferenceCountUtil.release(msg);
+		}
+	}
 
+	private void read(ChannelHandlerContext ctx, ByteBuf buffer) {
 		while (buffer.readableBytes() > 0)
 			switch (buffer.readInt()) {
 			case RQ_MAGIC:
 				// A valid request has been received
-				ctx.writeAndFlush(Unpooled.buffer(Integer.BYTES * 2).writeInt(RS_MAGIC).writeInt(buffer.readInt()));
+				ctx.writeAndFlush(ctx.alloc().ioBuffer(Integer.BYTES * 2).writeInt(RS_MAGIC).writeInt(buffer.readInt()));
 				break;
 			case RS_MAGIC:
 
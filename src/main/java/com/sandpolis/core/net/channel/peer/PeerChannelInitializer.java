@@ -11,38 +11,49 @@ package com.sandpolis.core.net.channel.peer;
 
 import static com.sandpolis.core.instance.thread.ThreadStore.ThreadStore;
 import static com.sandpolis.core.net.channel.HandlerKey.EXELET;
+import static com.sandpolis.core.net.channel.HandlerKey.FLUSH;
 import static com.sandpolis.core.net.channel.HandlerKey.FRAME_DECODER;
 import static com.sandpolis.core.net.channel.HandlerKey.FRAME_ENCODER;
+import static com.sandpolis.core.net.channel.HandlerKey.IDLE;
 import static com.sandpolis.core.net.channel.HandlerKey.LOG_DECODED;
 import static com.sandpolis.core.net.channel.HandlerKey.LOG_RAW;
 import static com.sandpolis.core.net.channel.HandlerKey.MANAGEMENT;
+import static com.sandpolis.core.net.channel.HandlerKey.PING;
 import static com.sandpolis.core.net.channel.HandlerKey.PROTO_DECODER;
 import static com.sandpolis.core.net.channel.HandlerKey.PROTO_ENCODER;
+import static com.sandpolis.core.net.channel.HandlerKey.RELAY;
 import static com.sandpolis.core.net.channel.HandlerKey.RESPONSE;
+import static com.sandpolis.core.net.channel.HandlerKey.STREAM;
 import static com.sandpolis.core.net.channel.HandlerKey.TRAFFIC;
 import static com.sandpolis.core.net.connection.ConnectionStore.ConnectionStore;
 
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
-import com.sandpolis.core.net.Message.MSG;
 import com.sandpolis.core.net.channel.ChannelConstant;
 import com.sandpolis.core.net.channel.ChannelStruct;
 import com.sandpolis.core.net.channel.HandlerKey;
 import com.sandpolis.core.net.config.CfgNet;
 import com.sandpolis.core.net.connection.Connection;
 import com.sandpolis.core.net.exelet.ExeletHandler;
+import com.sandpolis.core.net.handler.FlushBatchingHandler;
 import com.sandpolis.core.net.handler.ManagementHandler;
+import com.sandpolis.core.net.handler.MsgDecoder;
+import com.sandpolis.core.net.handler.MsgEncoder;
+import com.sandpolis.core.net.handler.PingHandler;
+import com.sandpolis.core.net.handler.RelayHandler;
 import com.sandpolis.core.net.handler.ResponseHandler;
+import com.sandpolis.core.net.handler.ShortcutFrameEncoder;
+import com.sandpolis.core.net.stream.StreamDemuxHandler;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.socket.DatagramChannel;
-import io.netty.handler.codec.protobuf.ProtobufDecoder;
-import io.netty.handler.codec.protobuf.ProtobufEncoder;
 import io.netty.handler.codec.protobuf.ProtobufVarint32FrameDecoder;
-import io.netty.handler.codec.protobuf.ProtobufVarint32LengthFieldPrepender;
 import io.netty.handler.logging.LoggingHandler;
+import io.netty.handler.timeout.IdleStateHandler;
 import io.netty.handler.traffic.ChannelTrafficShapingHandler;
 
 /**
@@ -51,6 +62,10 @@ import io.netty.handler.traffic.ChannelTrafficShapingHandler;
  * The {@link Channel} will automatically perform a NAT traversal prior
  * completion of the handshake if required.
  *
+ * <p>
+ * Features that are negotiated in the CVID handshake (frame compression and
+ * outgoing pings) are not available on peer connections.
+ *
  * @since 5.0.0
  */
 public class PeerChannelInitializer extends ChannelInitializer<Channel> {
@@ -60,20 +75,22 @@ public class PeerChannelInitializer extends ChannelInitializer<Channel> {
 	public static final HandlerKey<PeerEncryptionDecoder> ENCRYPTION_DECODER = new HandlerKey<>("EncryptionDecoder");
 
 	private static final ManagementHandler HANDLER_MANAGEMENT = new ManagementHandler();
-	private static final ProtobufDecoder HANDLER_PROTO_DECODER = new ProtobufDecoder(MSG.getDefaultInstance());
-	private static final ProtobufEncoder HANDLER_PROTO_ENCODER = new ProtobufEncoder();
-	private static final ProtobufVarint32LengthFieldPrepender HANDLER_PROTO_FRAME_ENCODER = new ProtobufVarint32LengthFieldPrepender();
+	private static final MsgDecoder HANDLER_PROTO_DECODER = new MsgDecoder();
+	private static final MsgEncoder HANDLER_PROTO_ENCODER = new MsgEncoder();
+	private static final RelayHandler HANDLER_RELAY = new RelayHandler();
+
+	private final ChannelStruct config;
 
 	public PeerChannelInitializer(Consumer<ChannelStruct> configurator) {
-		var config = new ChannelStruct();
+		config = new ChannelStruct();
 		configurator.accept(config);
-
 	}
 
 	@Override
 	protected void initChannel(Channel ch) throws Exception {
 		var connection = ConnectionStore.create(ch);
 		ch.attr(ChannelConstant.HANDSHAKE_FUTURE).set(ch.eventLoop().newPromise());
+		ch.config().setWriteBufferWaterMark(new WriteBufferWaterMark(config.writeBufferLow, config.writeBufferHigh));
 
 		ChannelPipeline p = ch.pipeline();
 
@@ -82,24 +99,40 @@ public class PeerChannelInitializer extends ChannelInitializer<Channel> {
 
 		p.addLast(TRAFFIC.next(p), new ChannelTrafficShapingHandler(CfgNet.TRAFFIC_INTERVAL.value().orElse(5000)));
 
+		if (config.pingInterval > 0)
+			p.addLast(IDLE.next(p), new IdleStateHandler(config.pingInterval, 0, 0, TimeUnit.MILLISECONDS));
+
 		p.addLast(ENCRYPTION_ENCODER.next(p), new PeerEncryptionEncoder());
 		p.addLast(ENCRYPTION_DECODER.next(p), new PeerEncryptionDecoder());
 
+		if (config.flushBatchSize > 0)
+			p.addLast(FLUSH.next(p), new FlushBatchingHandler(config.flushBatchSize, config.flushMaxDelay));
+
 		if (CfgNet.TRAFFIC_RAW.value().orElse(false))
 			p.addLast(LOG_RAW.next(p), new LoggingHandler(Connection.class));
 
 		p.addLast(FRAME_DECODER.next(p), new ProtobufVarint32FrameDecoder());
+
+		// There's no CVID handshake to negotiate compression, so ChannelStruct.compression
+		// is ignored and frames are never compressed
+		p.addLast(RELAY.next(p), HANDLER_RELAY);
 		p.addLast(PROTO_DECODER.next(p), HANDLER_PROTO_DECODER);
-		p.addLast(FRAME_ENCODER.next(p), HANDLER_PROTO_FRAME_ENCODER);
+		p.addLast(FRAME_ENCODER.next(p), new ShortcutFrameEncoder());
 		p.addLast(PROTO_ENCODER.next(p), HANDLER_PROTO_ENCODER);
 
 		if (CfgNet.TRAFFIC_DECODED.value().orElse(false))
 			p.addLast(LOG_DECODED.next(p), new LoggingHandler(Connection.class));
 
+		// There's no CVID handshake to negotiate pings, so peers only answer them
+		if (config.pingInterval > 0)
+			p.addLast(PING.next(p), new PingHandler(config.pingTimeout));
+
 		p.addLast(ThreadStore.get("net.exelet"), RESPONSE.next(p), new ResponseHandler());
 
 		p.addLast(ThreadStore.get("net.exelet"), EXELET.next(p), new ExeletHandler(connection));
 
+		p.addLast(STREAM.next(p), new StreamDemuxHandler());
+
 		p.addLast(MANAGEMENT.next(p), HANDLER_MANAGEMENT);
 	}
 }
@@ -14,18 +14,78 @@ import com.sandpolis.core.instance.config.DefaultConfigProperty;
 
 public final class CfgNet {
 
+	/**
+	 * The maximum number of handshakes that can be admitted in a burst.
+	 */
+	public static final ConfigProperty<Integer> ADMISSION_BURST = new DefaultConfigProperty<>(Integer.class,
+			"s7s.net.connection.admission.burst", 100);
+
+	/**
+	 * The sustained number of handshakes admitted per second. Instances beyond this
+	 * rate are told to back off. A value of 0 disables admission control.
+	 */
+	public static final ConfigProperty<Integer> ADMISSION_RATE = new DefaultConfigProperty<>(Integer.class,
+			"s7s.net.connection.admission.rate", 0);
+
+	/**
+	 * The minimum size in bytes of a frame that is worth compressing.
+	 */
+	public static final ConfigProperty<Integer> COMPRESSION_THRESHOLD = new DefaultConfigProperty<>(Integer.class,
+			"s7s.net.connection.compression.threshold", 512);
+
+	/**
+	 * The maximum number of flushes to coalesce on a connection. A value of 0
+	 * disables flush batching.
+	 */
+	public static final ConfigProperty<Integer> FLUSH_BATCH_SIZE = new DefaultConfigProperty<>(Integer.class,
+			"s7s.net.connection.flush.batch_size", 0);
+
+	/**
+	 * The maximum amount of time a flush can be deferred in microseconds.
+	 */
+	public static final ConfigProperty<Integer> FLUSH_MAX_DELAY = new DefaultConfigProperty<>(Integer.class,
+			"s7s.net.connection.flush.max_delay", 500);
+
 	/**
 	 * The default message timeout in milliseconds.
 	 */
 	public static final ConfigProperty<Integer> MESSAGE_TIMEOUT = new DefaultConfigProperty<>(Integer.class,
 			"s7s.net.message_timeout", 1000);
 
+	/**
+	 * The maximum amount of time in milliseconds that the server will buffer
+	 * topology changes before broadcasting them as a single delta.
+	 */
+	public static final ConfigProperty<Integer> NETWORK_DELTA_INTERVAL = new DefaultConfigProperty<>(Integer.class,
+			"s7s.net.network.delta_interval", 1000);
+
 	/**
 	 * The maximum number of outgoing connection attempts.
 	 */
 	public static final ConfigProperty<Integer> OUTGOING_CONCURRENCY = new DefaultConfigProperty<>(Integer.class,
 			"s7s.net.connection.max_outgoing");
 
+	/**
+	 * The amount of time in milliseconds a connection can go without receiving
+	 * anything before a ping is sent. A value of 0 disables pings.
+	 */
+	public static final ConfigProperty<Integer> PING_INTERVAL = new DefaultConfigProperty<>(Integer.class,
+			"s7s.net.connection.ping.interval", 5000);
+
+	/**
+	 * The amount of time in milliseconds to wait for a ping response before the
+	 * connection is considered dead.
+	 */
+	public static final ConfigProperty<Integer> PING_TIMEOUT = new DefaultConfigProperty<>(Integer.class,
+			"s7s.net.connection.ping.timeout", 15000);
+
+	/**
+	 * The number of events a stream sender may send before it receives credit from
+	 * the receiver.
+	 */
+	public static final ConfigProperty<Integer> STREAM_WINDOW = new DefaultConfigProperty<>(Integer.class,
+			"s7s.net.stream.window", 64);
+
 	/**
 	 * Whether TLS will be used for network connections.
 	 */
@@ -50,6 +110,20 @@ public final class CfgNet {
 	public static final ConfigProperty<Boolean> TRAFFIC_RAW = new DefaultConfigProperty<>(Boolean.class,
 			"s7s.net.logging.raw");
 
+	/**
+	 * The number of bytes in a connection's outbound buffer above which the
+	 * connection becomes unwritable.
+	 */
+	public static final ConfigProperty<Integer> WRITE_BUFFER_HIGH = new DefaultConfigProperty<>(Integer.class,
+			"s7s.net.connection.write_buffer.high", 64 * 1024);
+
+	/**
+	 * The number of bytes in a connection's outbound buffer below which an
+	 * unwritable connection becomes writable again.
+	 */
+	public static final ConfigProperty<Integer> WRITE_BUFFER_LOW = new DefaultConfigProperty<>(Integer.class,
+			"s7s.net.connection.write_buffer.low", 32 * 1024);
+
 	private CfgNet() {
 	}
 }
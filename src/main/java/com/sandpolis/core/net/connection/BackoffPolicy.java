@@ -0,0 +1,95 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.connection;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A {@link BackoffPolicy} determines how long a {@link ConnectionLoop} waits
+ * between rounds of failed connection attempts.
+ *
+ * <p>
+ * Policies without jitter cause every instance that lost its connection at the
+ * same time to retry at the same time. When a server restarts, its entire
+ * population reconnects in lockstep and the load arrives in waves. The jittered
+ * policies spread those attempts out.
+ *
+ * @since 7.0.0
+ */
+@FunctionalInterface
+public interface BackoffPolicy {
+
+	/**
+	 * Compute the delay before the next round of connection attempts.
+	 *
+	 * @param attempt  The number of failed attempts so far (at least 1)
+	 * @param previous The previous delay in milliseconds or 0 if there was none
+	 * @return The delay in milliseconds
+	 */
+	public int delay(int attempt, int previous);
+
+	/**
+	 * Build a policy that always waits for the same amount of time.
+	 *
+	 * @param delay The delay in milliseconds
+	 * @return A new policy
+	 */
+	public static BackoffPolicy constant(int delay) {
+		return (attempt, previous) -> delay;
+	}
+
+	/**
+	 * Build a policy whose delay doubles every {@code constant} attempts until it
+	 * reaches a limit.
+	 *
+	 * @param base     The initial delay in milliseconds
+	 * @param constant The number of attempts required for the delay to double
+	 * @param cap      The maximum delay in milliseconds
+	 * @return A new policy
+	 */
+	public static BackoffPolicy exponential(int base, double constant, int cap) {
+		return (attempt, previous) -> exp(base, (attempt - 1) / constant, cap);
+	}
+
+	/**
+	 * Build a policy that waits for a uniformly random amount of time between 0
+	 * and the capped exponential delay ("full jitter").
+	 *
+	 * @param base The initial delay in milliseconds
+	 * @param cap  The maximum delay in milliseconds
+	 * @return A new policy
+	 */
+	public static BackoffPolicy fullJitter(int base, int cap) {
+		// The bound can't overflow when the cap is Integer.MAX_VALUE
+		return (attempt, previous) -> (int) ThreadLocalRandom.current().nextLong(0, exp(base, attempt - 1, cap) + 1L);
+	}
+
+	/**
+	 * Build a policy that waits for a uniformly random amount of time between the
+	 * base delay and three times the previous delay ("decorrelated jitter").
+	 *
+	 * @param base The minimum delay in milliseconds
+	 * @param cap  The maximum delay in milliseconds
+	 * @return A new policy
+	 */
+	public static BackoffPolicy decorrelatedJitter(int base, int cap) {
+		return (attempt, previous) -> {
+			long upper = Math.max(base, 3L * previous);
+			return (int) Math.min(cap, ThreadLocalRandom.current().nextLong(base, upper + 1));
+		};
+	}
+
+	/**
+	 * Compute {@code base * 2^exponent} without overflowing the cap.
+	 */
+	private static int exp(int base, double exponent, int cap) {
+		return (int) Math.min(cap, base * Math.pow(2, exponent));
+	}
+}
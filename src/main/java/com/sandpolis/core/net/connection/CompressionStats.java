@@ -0,0 +1,115 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.connection;
+
+/**
+ * Frame compression statistics for a {@link Connection}. Byte counts include
+ * frames that were sent uncompressed because they were too small or
+ * incompressible. Times are CPU time where the JVM can measure it (see
+ * {@link com.sandpolis.core.net.handler.FrameCompressionHandler}).
+ *
+ * @since 7.0.0
+ */
+public final class CompressionStats {
+
+	private long rawOut;
+
+	private long wireOut;
+
+	private long rawIn;
+
+	private long wireIn;
+
+	private long compressTime;
+
+	private long decompressTime;
+
+	/**
+	 * Record an outbound frame.
+	 *
+	 * @param raw   The size of the frame before compression
+	 * @param wire  The size of the frame that was written
+	 * @param nanos The CPU time spent compressing the frame
+	 */
+	public synchronized void addOutbound(int raw, int wire, long nanos) {
+		rawOut += raw;
+		wireOut += wire;
+		compressTime += nanos;
+	}
+
+	/**
+	 * Record an inbound frame.
+	 *
+	 * @param raw   The size of the frame after decompression
+	 * @param wire  The size of the frame that was read
+	 * @param nanos The CPU time spent decompressing the frame
+	 */
+	public synchronized void addInbound(int raw, int wire, long nanos) {
+		rawIn += raw;
+		wireIn += wire;
+		decompressTime += nanos;
+	}
+
+	/**
+	 * @return The ratio of uncompressed to compressed outbound bytes
+	 */
+	public synchronized double getOutboundRatio() {
+		return wireOut == 0 ? 1 : rawOut / (double) wireOut;
+	}
+
+	/**
+	 * @return The ratio of uncompressed to compressed inbound bytes
+	 */
+	public synchronized double getInboundRatio() {
+		return wireIn == 0 ? 1 : rawIn / (double) wireIn;
+	}
+
+	/**
+	 * @return The total CPU time spent compressing frames in milliseconds
+	 */
+	public synchronized double getCompressTime() {
+		return compressTime / 1e6;
+	}
+
+	/**
+	 * @return The total CPU time spent decompressing frames in milliseconds
+	 */
+	public synchronized double getDecompressTime() {
+		return decompressTime / 1e6;
+	}
+
+	/**
+	 * @return The number of bytes written before compression
+	 */
+	public synchronized long getRawBytesOut() {
+		return rawOut;
+	}
+
+	/**
+	 * @return The number of bytes written after compression
+	 */
+	public synchronized long getWireBytesOut() {
+		return wireOut;
+	}
+
+	/**
+	 * @return The number of bytes read after decompression
+	 */
+	public synchronized long getRawBytesIn() {
+		return rawIn;
+	}
+
+	/**
+	 * @return The number of bytes read before decompression
+	 */
+	public synchronized long getWireBytesIn() {
+		return wireIn;
+	}
+}
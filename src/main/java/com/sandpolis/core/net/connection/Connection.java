@@ -33,10 +33,14 @@ import com.sandpolis.core.instance.state.vst.AbstractSTDomainObject;
 import com.sandpolis.core.net.Message.MSG;
 import com.sandpolis.core.net.channel.ChannelConstant;
 import com.sandpolis.core.net.channel.HandlerKey;
+import com.sandpolis.core.net.handler.FrameCompressionHandler;
+import com.sandpolis.core.net.handler.PingHandler;
+import com.sandpolis.core.net.handler.ShortcutFrameEncoder;
 import com.sandpolis.core.net.message.MessageFuture;
 import com.sandpolis.core.net.util.CvidUtil;
 import com.sandpolis.core.net.util.MsgUtil;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.embedded.EmbeddedChannel;
@@ -60,6 +64,13 @@ public class Connection extends AbstractSTDomainObject {
 	 */
 	private Channel channel;
 
+	/**
+	 * Whether the connection is authenticated. This field is the source of the
+	 * {@link ConnectionOid#AUTHENTICATED} attribute and can be read without going
+	 * through the attribute.
+	 */
+	private volatile boolean authenticated;
+
 	public Connection(STDocument document) {
 		super(document);
 	}
@@ -72,13 +83,14 @@ public class Connection extends AbstractSTDomainObject {
 	void setChannel(Channel channel) {
 
 		this.channel = Objects.requireNonNull(channel);
+		this.authenticated = false;
 
 		channel.attr(ChannelConstant.SOCK).set(this);
 		channel.attr(ChannelConstant.AUTH_STATE).set(false);
 		channel.attr(ChannelConstant.CERTIFICATE_STATE).set(false);
 
 		get(ConnectionOid.CERTIFICATE_VALID).source(channel().attr(ChannelConstant.CERTIFICATE_STATE)::get);
-		get(ConnectionOid.AUTHENTICATED).source(channel().attr(ChannelConstant.AUTH_STATE)::get);
+		get(ConnectionOid.AUTHENTICATED).source(this::isAuthenticated);
 		get(ConnectionOid.CONNECTED)
 				.source(() -> channel().attr(ChannelConstant.HANDSHAKE_FUTURE).get().isDone() && channel().isActive());
 		get(ConnectionOid.CUMULATIVE_READ_BYTES).source(() -> {
@@ -163,11 +175,21 @@ public class Connection extends AbstractSTDomainObject {
 	 */
 	public void authenticate() {
 		checkState(get(ConnectionOid.CONNECTED).asBoolean());
-		checkState(!get(ConnectionOid.AUTHENTICATED).asBoolean());
+		checkState(!authenticated);
 
+		authenticated = true;
 		channel().attr(ChannelConstant.AUTH_STATE).set(true);
 	}
 
+	/**
+	 * Determine whether this {@link Connection} is in the authenticated state.
+	 *
+	 * @return Whether the connection is authenticated
+	 */
+	public boolean isAuthenticated() {
+		return authenticated;
+	}
+
 	/**
 	 * Get the {@link Channel} of this {@link Connection}.
 	 *
@@ -193,8 +215,9 @@ public class Connection extends AbstractSTDomainObject {
 	 */
 	public void deauthenticate() {
 		checkState(get(ConnectionOid.CONNECTED).asBoolean());
-		checkState(get(ConnectionOid.AUTHENTICATED).asBoolean());
+		checkState(authenticated);
 
+		authenticated = false;
 		channel().attr(ChannelConstant.AUTH_STATE).set(false);
 	}
 
@@ -216,6 +239,22 @@ public class Connection extends AbstractSTDomainObject {
 				handler);
 	}
 
+	/**
+	 * Write an encoded {@link MSG} that was received by another connection without
+	 * decoding it. The frame is released once it has been written.
+	 *
+	 * @param frame The {@link MSG} frame without its length prefix
+	 */
+	public void forward(ByteBuf frame) {
+		var encoder = channel().pipeline().get(ShortcutFrameEncoder.class);
+		if (encoder == null) {
+			frame.release();
+			throw new IllegalStateException("The connection cannot forward frames");
+		}
+
+		encoder.shortcut(frame);
+	}
+
 	/**
 	 * Flush the underlying {@link Channel} immediately.
 	 */
@@ -242,6 +281,26 @@ public class Connection extends AbstractSTDomainObject {
 				.engine().getSession().getPeerCertificates()[0];
 	}
 
+	/**
+	 * Get the frame compression statistics for the {@link Connection}. Statistics
+	 * are only available if compression was requested for the connection.
+	 *
+	 * @return The connection's compression statistics
+	 */
+	public Optional<CompressionStats> getCompressionStats() {
+		return getHandler(HandlerKey.COMPRESSION).map(FrameCompressionHandler::getStats);
+	}
+
+	/**
+	 * Get the round-trip time statistics for the {@link Connection}. Statistics
+	 * are only available if pings are enabled on the connection.
+	 *
+	 * @return The connection's RTT statistics
+	 */
+	public Optional<RttStats> getRttStats() {
+		return getHandler(HandlerKey.PING).map(PingHandler::getRttStats);
+	}
+
 	/**
 	 * Get the {@link ChannelTrafficShapingHandler} for the {@link Connection}.
 	 *
@@ -14,8 +14,8 @@ import static com.sandpolis.core.instance.thread.ThreadStore.ThreadStore;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
-import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,18 +23,27 @@ import org.slf4j.LoggerFactory;
 import com.sandpolis.core.foundation.cstruct.VResult;
 import com.sandpolis.core.foundation.cstruct.ValidatableConfigStruct;
 import com.sandpolis.core.net.Channel.ChannelTransportProtocol;
+import com.sandpolis.core.net.channel.ChannelConstant;
 import com.sandpolis.core.net.util.ChannelUtil;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
 import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
 
 /**
  * A {@link ConnectionLoop} makes repeated connection attempts to a set of
  * targets until either a connection is made or the maximum iteration count has
  * been reached. The connection attempt interval can be configured to slowly
- * ease up on a host that is consistently refusing connections (exponential
- * cooldown).
+ * ease up on a host that is consistently refusing connections (see
+ * {@link BackoffPolicy}). A server may also ask the loop to back off for longer
+ * during the handshake if it's overloaded.
+ *
+ * <p>
+ * The loop is entirely asynchronous: attempts and cooldowns are scheduled on
+ * the loop's executor, so no thread is occupied while waiting. Targets can
+ * either be tried one at a time or raced against each other in parallel.
  *
  * @since 0.1.0
  */
@@ -42,6 +51,12 @@ public final class ConnectionLoop implements Runnable {
 
 	public static final class ConfigStruct extends ValidatableConfigStruct {
 
+		/**
+		 * The policy that determines the cooldown after each failed round. If not
+		 * specified, a policy will be built from the cooldown settings.
+		 */
+		public BackoffPolicy backoff;
+
 		/**
 		 * The Netty {@link Bootstrap} to use for the connection attempt.
 		 */
@@ -54,8 +69,8 @@ public final class ConnectionLoop implements Runnable {
 
 		/**
 		 * The exponential cooldown time constant which is the number of iterations
-		 * required for the total cooldown to increase by a factor of the initial
-		 * cooldown. A value of 0 disables exponential cooldown.
+		 * required for the cooldown to double. A value of 0 disables exponential
+		 * cooldown.
 		 */
 		public double cooldownConstant = 0.0;
 
@@ -71,7 +86,19 @@ public final class ConnectionLoop implements Runnable {
 		public int iterationLimit = 0;
 
 		/**
-		 * A set of targets that will be tried sequentially.
+		 * Whether the targets will be tried in parallel rather than sequentially. The
+		 * first attempt to complete the handshake is kept and the rest are cancelled.
+		 */
+		public boolean parallel = false;
+
+		/**
+		 * The delay in milliseconds between starting consecutive attempts in a
+		 * parallel round. This gives earlier (preferred) targets a head start.
+		 */
+		public int stagger = 250;
+
+		/**
+		 * A set of targets that will be tried in order.
 		 */
 		public final List<Target> targets = new ArrayList<>();
 
@@ -107,6 +134,10 @@ public final class ConnectionLoop implements Runnable {
 				return new VResult("Invalid iterationLimit: " + iterationLimit);
 			}
 
+			if (stagger < 0) {
+				return new VResult("Invalid stagger: " + stagger);
+			}
+
 			if (targets.size() == 0) {
 				return new VResult("No targets specified");
 			}
@@ -123,18 +154,25 @@ public final class ConnectionLoop implements Runnable {
 
 	public static final Logger log = LoggerFactory.getLogger(ConnectionLoop.class);
 
-	private final Bootstrap bootstrap;
+	/**
+	 * The connection attempts of the current round that have not completed yet.
+	 */
+	private final List<ChannelFuture> attempts = new ArrayList<>();
 
-	private int cooldown;
+	/**
+	 * The policy that calculates the connection cooldown.
+	 */
+	private final BackoffPolicy backoff;
 
-	private final double cooldownConstant;
+	private final Bootstrap bootstrap;
 
-	private final int cooldownLimit;
+	private int cooldown;
 
 	/**
-	 * The exponential function that calculates the connection cooldown.
+	 * The executor on which all loop state is accessed and all attempts are
+	 * scheduled.
 	 */
-	private final Supplier<Integer> exponential;
+	private final EventExecutor executor;
 
 	/**
 	 * The {@link ConnectionFuture} that will be notified by a successful connection
@@ -146,6 +184,32 @@ public final class ConnectionLoop implements Runnable {
 
 	private final int iterationLimit;
 
+	/**
+	 * The number of rounds that have failed. The backoff grows once per round no
+	 * matter how many targets the round tried.
+	 */
+	private int failedRounds;
+
+	/**
+	 * The index of the next target to try in the current round.
+	 */
+	private int next;
+
+	private final boolean parallel;
+
+	/**
+	 * The longest backoff requested by a server in the current round.
+	 */
+	private int retryAfter;
+
+	/**
+	 * The number of attempts in the current round that have not completed yet,
+	 * including those that haven't started.
+	 */
+	private int pending;
+
+	private final int stagger;
+
 	private final List<Target> targets;
 
 	public ConnectionLoop(Consumer<ConfigStruct> configurator) {
@@ -160,9 +224,9 @@ public final class ConnectionLoop implements Runnable {
 		this.bootstrap = config.bootstrap;
 		this.targets = config.targets;
 		this.cooldown = config.cooldown;
-		this.cooldownConstant = config.cooldownConstant;
-		this.cooldownLimit = config.cooldownLimit;
 		this.iterationLimit = config.iterationLimit;
+		this.parallel = config.parallel;
+		this.stagger = config.stagger;
 
 		// Set channel options
 		bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.timeout);
@@ -177,18 +241,25 @@ public final class ConnectionLoop implements Runnable {
 		}
 
 		// Build a SockFuture without a ChannelFuture
-		this.future = new ConnectionFuture((EventExecutor) ThreadStore.get("net.connection.loop"));
-
-		// Setup cooldown supplier
-		if (cooldownConstant == 0 || cooldownLimit <= config.cooldown) {
-			this.exponential = () -> cooldown;
+		this.executor = (EventExecutor) ThreadStore.get("net.connection.loop");
+		this.future = new ConnectionFuture(executor);
+
+		// Abandon outstanding attempts if the loop is cancelled externally
+		this.future.addListener(f -> {
+			if (f.isCancelled())
+				executor.execute(this::cancelAttempts);
+		});
+
+		// Setup cooldown policy
+		if (config.backoff != null) {
+			this.backoff = config.backoff;
+		} else if (config.cooldownConstant == 0
+				|| (config.cooldownLimit != 0 && config.cooldownLimit <= config.cooldown)) {
+			this.backoff = BackoffPolicy.constant(config.cooldown);
 		} else {
-			this.exponential = () -> {
-				return (int) Math.min(cooldownLimit,
-						config.cooldown * Math.pow(config.cooldown, iteration / cooldownConstant));
-			};
+			this.backoff = BackoffPolicy.exponential(config.cooldown, config.cooldownConstant,
+					config.cooldownLimit == 0 ? Integer.MAX_VALUE : config.cooldownLimit);
 		}
-		this.cooldown = config.cooldown;
 	}
 
 	/**
@@ -206,40 +277,122 @@ public final class ConnectionLoop implements Runnable {
 		log.debug("Starting connection loop (target count = {}, iteration limit = {}, cooldown = {})", targets.size(),
 				iterationLimit, cooldown);
 
-		try {
-			while (iteration < iterationLimit || iterationLimit == 0) {
-
-				if (iteration > 0) {
-					log.trace("Waiting {} ms before next connection attempt", cooldown);
-					Thread.sleep(cooldown);
-				}
-
-				for (var target : targets) {
-
-					log.debug("Attempting connection to {} on port {}", target.address(), target.port());
-					var connect = new ConnectionFuture(
-							bootstrap.remoteAddress(target.address(), target.port()).connect()).await();
-
-					if (connect.isSuccess()) {
-						log.debug("Connection attempt succeeded");
-						future.setSuccess(connect.get());
-						return;
-					} else {
-						log.debug("Connection attempt failed");
-					}
-
-					iteration++;
-					cooldown = exponential.get();
-				}
+		executor.execute(this::round);
+	}
+
+	/**
+	 * Begin a round of connection attempts which tries every target once.
+	 */
+	private void round() {
+		if (future.isDone())
+			return;
+
+		next = 0;
+		retryAfter = 0;
+		if (parallel) {
+			pending = targets.size();
+			for (int i = 0; i < targets.size(); i++) {
+				executor.schedule(this::attempt, (long) i * stagger, TimeUnit.MILLISECONDS);
 			}
+		} else {
+			pending = 1;
+			attempt();
+		}
+	}
+
+	/**
+	 * Make a connection attempt on the next target in the current round.
+	 */
+	private void attempt() {
+		if (future.isDone()) {
+			pending--;
+			return;
+		}
+
+		var target = targets.get(next++);
+		log.debug("Attempting connection to {} on port {}", target.address(), target.port());
 
-			// Maximum iteration count exceeded
-			log.debug("Maximum connection iteration count exceeded");
-			future.setFailure(new Exception("Maximum connection iteration count exceeded"));
+		try {
+			var connect = bootstrap.connect(target.address(), target.port());
+			attempts.add(connect);
+
+			new ConnectionFuture(connect).addListener((Future<Connection> attempt) -> {
+				executor.execute(() -> complete(connect, attempt));
+			});
 		} catch (Exception e) {
 			log.debug("Encountered exception in connection loop", e);
-			future.setFailure(e);
+			future.tryFailure(e);
+		}
+	}
+
+	/**
+	 * Handle the outcome of a connection attempt.
+	 *
+	 * @param connect The attempt's channel future
+	 * @param attempt The attempt's connection future
+	 */
+	private void complete(ChannelFuture connect, Future<Connection> attempt) {
+		attempts.remove(connect);
+		pending--;
+
+		if (attempt.isSuccess()) {
+			if (future.trySuccess(attempt.getNow())) {
+				log.debug("Connection attempt succeeded");
+				cancelAttempts();
+			} else {
+				// Another attempt already won or the loop was cancelled
+				attempt.getNow().channel().close();
+			}
+			return;
+		}
+
+		// The channel may still be open, for example if the handshake was refused
+		connect.channel().close();
+
+		if (future.isDone())
+			return;
+
+		log.debug("Connection attempt failed");
+
+		// Check whether the server asked for a backoff during the handshake
+		var hint = connect.channel().attr(ChannelConstant.RETRY_AFTER).get();
+		if (hint != null) {
+			retryAfter = Math.max(retryAfter, hint);
+		}
+
+		iteration++;
+
+		if (!parallel && next < targets.size()) {
+			pending++;
+			attempt();
+			return;
+		}
+
+		if (pending == 0) {
+			if (iterationLimit != 0 && iteration >= iterationLimit) {
+				log.debug("Maximum connection iteration count exceeded");
+				future.tryFailure(new Exception("Maximum connection iteration count exceeded"));
+				return;
+			}
+
+			failedRounds++;
+			cooldown = backoff.delay(failedRounds, cooldown);
+
+			int delay = Math.max(cooldown, retryAfter);
+			log.trace("Waiting {} ms before next connection attempt", delay);
+			executor.schedule(this::round, delay, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Abandon all outstanding connection attempts in the current round.
+	 */
+	private void cancelAttempts() {
+		for (var connect : attempts) {
+			connect.cancel(false);
+			connect.channel().close();
 		}
+		attempts.clear();
 	}
 
 	/**
@@ -26,6 +26,7 @@ import com.sandpolis.core.net.channel.client.ClientChannelInitializer;
 import com.sandpolis.core.net.connection.ConnectionStore.ConnectionStoreConfig;
 import com.sandpolis.core.net.network.NetworkStore;
 import com.sandpolis.core.net.util.ChannelUtil;
+import com.sandpolis.core.net.util.StripedIntObjectMap;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
@@ -55,6 +56,12 @@ public final class ConnectionStore extends STCollectionStore<Connection>
 
 	public static final Logger log = LoggerFactory.getLogger(ConnectionStore.class);
 
+	/**
+	 * An index of connections by remote CVID. Connections are added to the index
+	 * once the CVID handshake completes and removed when the connection is lost.
+	 */
+	private final StripedIntObjectMap<Connection> cvidIndex = new StripedIntObjectMap<>();
+
 	public ConnectionStore() {
 		super(log, Connection::new);
 	}
@@ -123,12 +130,41 @@ public final class ConnectionStore extends STCollectionStore<Connection>
 		return connection;
 	}
 
+	/**
+	 * Get the connection associated with the given remote CVID. Only connections
+	 * that have completed the CVID handshake can be found with this method.
+	 *
+	 * @param cvid The remote CVID
+	 * @return The connection or {@code Optional.empty()}
+	 */
 	public Optional<Connection> getByCvid(int cvid) {
+		return Optional.ofNullable(cvidIndex.get(cvid));
+	}
 
-		return values().stream().filter(connection -> {
-			var attr = connection.get(ConnectionOid.REMOTE_CVID);
-			return attr.isPresent() && attr.asInt() == cvid;
-		}).findFirst();
+	/**
+	 * Associate the given connection with its remote CVID so it can be found with
+	 * {@link #getByCvid(int)}.
+	 *
+	 * @param connection A connection that has completed the CVID handshake
+	 */
+	public void index(Connection connection) {
+		var attr = connection.get(ConnectionOid.REMOTE_CVID);
+		if (attr.isPresent()) {
+			cvidIndex.put(attr.asInt(), connection);
+		}
+	}
+
+	/**
+	 * Remove the given connection from the CVID index. The index is unchanged if
+	 * the connection's CVID has since been claimed by another connection.
+	 *
+	 * @param connection The connection to remove
+	 */
+	public void unindex(Connection connection) {
+		var attr = connection.get(ConnectionOid.REMOTE_CVID);
+		if (attr.isPresent()) {
+			cvidIndex.remove(attr.asInt(), connection);
+		}
 	}
 
 	@Override
@@ -0,0 +1,101 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.connection;
+
+import java.util.Arrays;
+
+/**
+ * Round-trip time statistics for a {@link Connection}. All values are in
+ * milliseconds.
+ *
+ * @since 7.0.0
+ */
+public final class RttStats {
+
+	/**
+	 * The number of recent samples kept for percentiles.
+	 */
+	private static final int WINDOW = 64;
+
+	/**
+	 * The weight of each new sample in the moving average (the same as TCP's
+	 * smoothed RTT).
+	 */
+	private static final double ALPHA = 0.125;
+
+	private final double[] samples = new double[WINDOW];
+
+	/**
+	 * The index in {@link #samples} of the next sample.
+	 */
+	private int next;
+
+	private long count;
+
+	private double last = -1;
+
+	private double average = -1;
+
+	/**
+	 * Record a new round-trip time.
+	 *
+	 * @param nanos The round-trip time in nanoseconds
+	 */
+	public synchronized void add(long nanos) {
+		last = nanos / 1e6;
+		average = average < 0 ? last : average + ALPHA * (last - average);
+
+		samples[next] = last;
+		next = (next + 1) % WINDOW;
+		count++;
+	}
+
+	/**
+	 * @return The number of samples recorded
+	 */
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return The most recent round-trip time or -1 if there are no samples
+	 */
+	public synchronized double getLast() {
+		return last;
+	}
+
+	/**
+	 * @return The exponentially weighted moving average of the round-trip time or
+	 *         -1 if there are no samples
+	 */
+	public synchronized double getAverage() {
+		return average;
+	}
+
+	/**
+	 * Get a percentile of the recent round-trip times.
+	 *
+	 * @param percentile The percentile in the range (0, 100]
+	 * @return The round-trip time at the given percentile or -1 if there are no
+	 *         samples
+	 */
+	public synchronized double getPercentile(double percentile) {
+		if (percentile <= 0 || percentile > 100)
+			throw new IllegalArgumentException("Invalid percentile: " + percentile);
+		if (count == 0)
+			return -1;
+
+		var sorted = Arrays.copyOf(samples, (int) Math.min(count, WINDOW));
+		Arrays.sort(sorted);
+
+		// Nearest rank
+		return sorted[(int) Math.ceil(percentile / 100 * sorted.length) - 1];
+	}
+}
@@ -18,10 +18,15 @@ import com.sandpolis.core.instance.Entrypoint;
 import com.sandpolis.core.instance.Metatypes.InstanceFlavor;
 import com.sandpolis.core.instance.Metatypes.InstanceType;
 import com.sandpolis.core.instance.state.ConnectionOid;
+import com.sandpolis.core.net.Channel.ChannelCompression;
 import com.sandpolis.core.net.Message.MSG;
 import com.sandpolis.core.net.channel.ChannelConstant;
+import com.sandpolis.core.net.handler.CompressionDictionary;
+import com.sandpolis.core.net.handler.FrameCompressionHandler;
+import com.sandpolis.core.net.handler.PingHandler;
 import com.sandpolis.core.net.msg.MsgCvid.RQ_Cvid;
 import com.sandpolis.core.net.msg.MsgCvid.RS_Cvid;
+import com.sandpolis.core.net.stream.StreamDemuxHandler;
 import com.sandpolis.core.net.util.MsgUtil;
 
 import io.netty.channel.Channel;
@@ -54,9 +59,29 @@ public class CvidRequestHandler extends AbstractCvidHandler {
 			sock.set(ConnectionOid.REMOTE_CVID, rs.getServerCvid());
 			sock.set(ConnectionOid.REMOTE_UUID, rs.getServerUuid());
 
+			// Every frame after the response uses the negotiated compression
+			var compression = ch.pipeline().get(FrameCompressionHandler.class);
+			if (compression != null && rs.getCompression() != ChannelCompression.NONE)
+				compression.enable(rs.getDictionariesList());
+
+			// Older servers don't answer pings
+			var ping = ch.pipeline().get(PingHandler.class);
+			if (ping != null && rs.getPing())
+				ping.enable();
+
+			// Older servers neither send nor expect stream credit
+			var streams = ch.pipeline().get(StreamDemuxHandler.class);
+			if (streams != null && rs.getStreamCredit())
+				streams.enableCredit();
+
 			super.userEventTriggered(ctx, new CvidHandshakeCompletionEvent(rs.getCvid(), rs.getServerCvid()));
 			log.debug("CVID handshake succeeded ({})", rs.getCvid());
 		} else {
+			if (rs != null && rs.getRetryAfter() > 0) {
+				// The server is overloaded
+				ch.attr(ChannelConstant.RETRY_AFTER).set(rs.getRetryAfter());
+			}
+
 			super.userEventTriggered(ctx, new CvidHandshakeCompletionEvent());
 			log.debug("CVID handshake failed");
 		}
@@ -78,7 +103,19 @@ public class CvidRequestHandler extends AbstractCvidHandler {
 	 */
 	void handshake(Channel channel, InstanceType instance, InstanceFlavor flavor, String uuid) {
 		log.debug("Initiating CVID handshake");
-		channel.writeAndFlush(
-				MsgUtil.rq(RQ_Cvid.newBuilder().setInstance(instance).setInstanceFlavor(flavor).setUuid(uuid)).build());
+
+		var rq = RQ_Cvid.newBuilder().setInstance(instance).setInstanceFlavor(flavor).setUuid(uuid);
+
+		var compression = channel.pipeline().get(FrameCompressionHandler.class);
+		if (compression != null)
+			rq.setCompression(compression.getAlgorithm()).addAllDictionaries(CompressionDictionary.ids());
+
+		// Pings are answered by the PingHandler
+		rq.setPing(channel.pipeline().get(PingHandler.class) != null);
+
+		// Stream credit is handled by the StreamDemuxHandler
+		rq.setStreamCredit(channel.pipeline().get(StreamDemuxHandler.class) != null);
+
+		channel.writeAndFlush(MsgUtil.rq(rq).build());
 	}
 }
@@ -18,20 +18,38 @@ import com.sandpolis.core.instance.Entrypoint;
 import com.sandpolis.core.instance.Metatypes.InstanceFlavor;
 import com.sandpolis.core.instance.Metatypes.InstanceType;
 import com.sandpolis.core.instance.state.ConnectionOid;
+import com.sandpolis.core.net.Channel.ChannelCompression;
 import com.sandpolis.core.net.Message.MSG;
 import com.sandpolis.core.net.channel.ChannelConstant;
+import com.sandpolis.core.net.config.CfgNet;
+import com.sandpolis.core.net.handler.CompressionDictionary;
+import com.sandpolis.core.net.handler.FrameCompressionHandler;
+import com.sandpolis.core.net.handler.PingHandler;
 import com.sandpolis.core.net.msg.MsgCvid.RQ_Cvid;
 import com.sandpolis.core.net.msg.MsgCvid.RS_Cvid;
+import com.sandpolis.core.net.stream.StreamDemuxHandler;
 import com.sandpolis.core.net.util.CvidUtil;
 import com.sandpolis.core.net.util.MsgUtil;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 
 /**
  * This handler manages the CVID handshake for the responding instance. Usually
  * the responding instance will be the server.
  *
+ * <p>
+ * If admission control is enabled, handshakes that exceed the configured rate
+ * are refused with a hint that tells the requesting instance how long to wait
+ * before reconnecting. The channel is closed once the hint has been written.
+ *
+ * <p>
+ * If both instances have a {@link FrameCompressionHandler} with the same
+ * algorithm, compression is enabled for every frame after the response.
+ * Likewise, pings are only sent if both instances have a {@link PingHandler},
+ * and stream credit is only used if both have a {@link StreamDemuxHandler}.
+ *
  * @see CvidRequestHandler
  *
  * @author cilki
@@ -41,6 +59,24 @@ public class CvidResponseHandler extends AbstractCvidHandler {
 
 	private static final Logger log = LoggerFactory.getLogger(CvidResponseHandler.class);
 
+	/**
+	 * The handshake rate limiter or {@code null} if admission control is disabled.
+	 */
+	private final HandshakeAdmission admission;
+
+	public CvidResponseHandler() {
+		this(CfgNet.ADMISSION_RATE.value().orElse(0), CfgNet.ADMISSION_BURST.value().orElse(100));
+	}
+
+	/**
+	 * @param rate  The sustained number of handshakes admitted per second or 0 for
+	 *              no limit
+	 * @param burst The maximum number of handshakes admitted in a burst
+	 */
+	public CvidResponseHandler(int rate, int burst) {
+		this.admission = rate > 0 ? new HandshakeAdmission(rate, burst) : null;
+	}
+
 	@Override
 	protected void channelRead0(ChannelHandlerContext ctx, MSG msg) throws Exception {
 		Channel ch = ctx.channel();
@@ -50,15 +86,51 @@ public class CvidResponseHandler extends AbstractCvidHandler {
 		ch.pipeline().remove(this);
 
 		RQ_Cvid rq = MsgUtil.unpack(msg, RQ_Cvid.class);
+		int retryAfter;
+
 		if (rq == null || rq.getUuid().isEmpty() || rq.getInstance() == InstanceType.UNRECOGNIZED
 				|| rq.getInstance() == InstanceType.SERVER || rq.getInstanceFlavor() == InstanceFlavor.UNRECOGNIZED) {
 			log.debug("Received invalid CVID request on channel: {}", ch.id());
 			super.userEventTriggered(ctx, new CvidHandshakeCompletionEvent());
+		} else if (admission != null && (retryAfter = admission.admit()) != 0) {
+			log.debug("Refused CVID request on channel: {} (retry after {} ms)", ch.id(), retryAfter);
+
+			// Don't let refused instances hold on to a connection
+			ch.writeAndFlush(MsgUtil.rs(msg, RS_Cvid.newBuilder().setRetryAfter(retryAfter)).build())
+					.addListener(ChannelFutureListener.CLOSE);
+			super.userEventTriggered(ctx, new CvidHandshakeCompletionEvent());
 		} else {
 			int cvid = CvidUtil.cvid(rq.getInstance(), rq.getInstanceFlavor());
 
-			ch.writeAndFlush(MsgUtil.rs(msg, RS_Cvid.newBuilder().setServerCvid(NetworkStore.cvid())
-					.setServerUuid(Entrypoint.data().uuid()).setCvid(cvid)).build());
+			var rs = RS_Cvid.newBuilder().setServerCvid(NetworkStore.cvid()).setServerUuid(Entrypoint.data().uuid())
+					.setCvid(cvid);
+
+			var compression = ch.pipeline().get(FrameCompressionHandler.class);
+			if (compression != null && rq.getCompression() == compression.getAlgorithm()) {
+				var dictionaries = CompressionDictionary.ids();
+				rs.setCompression(rq.getCompression());
+				rq.getDictionariesList().stream().filter(dictionaries::contains).forEach(rs::addDictionaries);
+			}
+
+			var ping = ch.pipeline().get(PingHandler.class);
+			rs.setPing(ping != null);
+
+			var streams = ch.pipeline().get(StreamDemuxHandler.class);
+			rs.setStreamCredit(streams != null);
+
+			ch.writeAndFlush(MsgUtil.rs(msg, rs).build());
+
+			// The response itself is not compressed
+			if (rs.getCompression() != ChannelCompression.NONE)
+				compression.enable(rs.getDictionariesList());
+
+			// Older instances don't answer pings
+			if (ping != null && rq.getPing())
+				ping.enable();
+
+			// Older instances neither send nor expect stream credit
+			if (streams != null && rq.getStreamCredit())
+				streams.enableCredit();
 
 			sock.set(ConnectionOid.REMOTE_INSTANCE, rq.getInstance());
 			sock.set(ConnectionOid.REMOTE_CVID, cvid);
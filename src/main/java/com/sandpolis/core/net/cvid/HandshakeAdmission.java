@@ -0,0 +1,108 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.cvid;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket that limits the rate at which CVID handshakes are admitted.
+ *
+ * <p>
+ * When the bucket is empty, the refused instance receives a retry hint. Hints
+ * are spread uniformly over the time it will take the server to work through
+ * all recently refused instances at its admission rate, so a reconnect storm is
+ * flattened into a steady stream instead of being deferred to a later storm.
+ *
+ * @since 7.0.0
+ */
+public final class HandshakeAdmission {
+
+	/**
+	 * The number of handshakes admitted per nanosecond.
+	 */
+	private final double rate;
+
+	/**
+	 * The maximum number of tokens in the bucket.
+	 */
+	private final double burst;
+
+	/**
+	 * The number of tokens in the bucket.
+	 */
+	private double tokens;
+
+	/**
+	 * The number of refused instances that are expected to return, which drains at
+	 * the admission rate.
+	 */
+	private double backlog;
+
+	/**
+	 * The last time the bucket was refilled.
+	 */
+	private long last = Long.MIN_VALUE;
+
+	/**
+	 * @param rate  The sustained number of handshakes admitted per second
+	 * @param burst The maximum number of handshakes admitted in a burst
+	 */
+	public HandshakeAdmission(int rate, int burst) {
+		if (rate <= 0)
+			throw new IllegalArgumentException("Invalid rate: " + rate);
+		if (burst <= 0)
+			throw new IllegalArgumentException("Invalid burst: " + burst);
+
+		this.rate = rate / (double) TimeUnit.SECONDS.toNanos(1);
+		this.burst = burst;
+		this.tokens = burst;
+	}
+
+	/**
+	 * Attempt to admit a handshake now.
+	 *
+	 * @return 0 if the handshake was admitted, otherwise the number of milliseconds
+	 *         the instance should wait before reconnecting
+	 */
+	public int admit() {
+		return admit(System.nanoTime());
+	}
+
+	/**
+	 * Attempt to admit a handshake at the given time.
+	 *
+	 * @param now The current time in nanoseconds
+	 * @return 0 if the handshake was admitted, otherwise the number of milliseconds
+	 *         the instance should wait before reconnecting
+	 */
+	public synchronized int admit(long now) {
+		if (last == Long.MIN_VALUE)
+			last = now;
+
+		double elapsed = Math.max(0, now - last) * rate;
+		last = Math.max(now, last);
+
+		tokens = Math.min(burst, tokens + elapsed);
+		backlog = Math.max(0, backlog - elapsed);
+
+		if (tokens >= 1) {
+			tokens--;
+			return 0;
+		}
+
+		backlog++;
+
+		// The time until the next token is available plus a random share of the
+		// backlog's drain time
+		double wait = (1 - tokens) / rate + ThreadLocalRandom.current().nextDouble() * backlog / rate;
+		return (int) Math.max(1, TimeUnit.NANOSECONDS.toMillis((long) wait));
+	}
+}
@@ -11,11 +11,10 @@ package com.sandpolis.core.net.exelet;
 
 import static com.sandpolis.core.net.exelet.ExeletStore.ExeletStore;
 
-import java.util.Map;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.sandpolis.core.instance.Metatypes.InstanceType;
 import com.sandpolis.core.instance.state.ConnectionOid;
 import com.sandpolis.core.net.Message.MSG;
 import com.sandpolis.core.net.connection.Connection;
@@ -30,7 +29,9 @@ import io.netty.channel.SimpleChannelInboundHandler;
  * {@link Exelet} handler.
  *
  * <p>
- * This handler maintains a separate dispatch vector for each loaded plugin.
+ * This handler reads the {@link ExeletStore}'s dispatch table for the remote
+ * instance type on every message, so plugins that are loaded or unloaded take
+ * effect immediately.
  */
 public final class ExeletHandler extends SimpleChannelInboundHandler<MSG> {
 
@@ -38,7 +39,10 @@ public final class ExeletHandler extends SimpleChannelInboundHandler<MSG> {
 
 	final Connection sock;
 
-	Map<Integer, ExeletMethod> handlers;
+	/**
+	 * The remote instance type which selects the dispatch table.
+	 */
+	private InstanceType remote;
 
 	public ExeletHandler(Connection sock) {
 		this.sock = sock;
@@ -50,20 +54,12 @@ public final class ExeletHandler extends SimpleChannelInboundHandler<MSG> {
 			CvidHandshakeCompletionEvent event = (CvidHandshakeCompletionEvent) evt;
 
 			if (event.success) {
-				switch (CvidUtil.extractInstance(event.remote)) {
-				case AGENT:
-					handlers = ExeletStore.agent;
-					break;
-				case SERVER:
-					handlers = ExeletStore.server;
-					break;
-				case CLIENT:
-					handlers = ExeletStore.client;
-					break;
-				default:
+				var instance = CvidUtil.extractInstance(event.remote);
+				if (ExeletStore.handlers(instance) == null)
 					throw new RuntimeException("Cannot create ExeletHandler with remote instance: "
 							+ sock.get(ConnectionOid.REMOTE_INSTANCE).asString());
-				}
+
+				remote = instance;
 			}
 		}
 
@@ -73,10 +69,10 @@ public final class ExeletHandler extends SimpleChannelInboundHandler<MSG> {
 	@Override
 	protected void channelRead0(ChannelHandlerContext ctx, MSG msg) throws Exception {
 
-		var handler = handlers.get(msg.getPayloadType());
+		var handler = remote != null ? ExeletStore.handlers(remote).get(msg.getPayloadType()) : null;
 		if (handler != null) {
 			log.debug("Handling message with exelet: {}", handler.name);
-			handler.accept(new ExeletContext(sock, msg));
+			handler.accept(sock, msg);
 		} else {
 			// There's no valid handler
 			ctx.fireChannelRead(msg);
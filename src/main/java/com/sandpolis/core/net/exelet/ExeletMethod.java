@@ -11,30 +11,89 @@ package com.sandpolis.core.net.exelet;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.lang.invoke.LambdaMetafactory;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.util.function.Consumer;
+import java.util.function.BiConsumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.protobuf.ByteString;
 import com.google.protobuf.MessageLite;
 import com.google.protobuf.MessageLiteOrBuilder;
-import com.sandpolis.core.instance.state.ConnectionOid;
+import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.connection.Connection;
 import com.sandpolis.core.net.util.MsgUtil;
 
+/**
+ * An {@link ExeletMethod} wraps a single {@link Exelet.Handler} method.
+ *
+ * <p>
+ * Each handler is bound to a generated invoker class at registration time
+ * (using {@link LambdaMetafactory}) rather than being called through a
+ * {@link java.lang.invoke.MethodHandle}. The payload is parsed with the message
+ * type's cached protobuf parser.
+ */
 public class ExeletMethod {
 
 	private static final Logger log = LoggerFactory.getLogger(ExeletMethod.class);
 
+	/**
+	 * The invoker shape of TYPE 1 handlers: {@code void handle(RQ)}.
+	 */
+	@FunctionalInterface
+	interface Type1 {
+		void invoke(MessageLite payload) throws Exception;
+	}
+
+	/**
+	 * The invoker shape of TYPE 2 handlers: {@code RS handle(RQ)}.
+	 */
+	@FunctionalInterface
+	interface Type2 {
+		MessageLiteOrBuilder invoke(MessageLite payload) throws Exception;
+	}
+
+	/**
+	 * The invoker shape of TYPE 3 handlers: {@code void handle(context, RQ)}.
+	 */
+	@FunctionalInterface
+	interface Type3 {
+		void invoke(ExeletContext context, MessageLite payload) throws Exception;
+	}
+
+	/**
+	 * The invoker shape of TYPE 4 handlers: {@code RS handle(context, RQ)}.
+	 */
+	@FunctionalInterface
+	interface Type4 {
+		MessageLiteOrBuilder invoke(ExeletContext context, MessageLite payload) throws Exception;
+	}
+
 	public final Exelet.Handler metadata;
 
 	public final int type;
 
 	public final String name;
 
-	private Consumer<ExeletContext> handler;
+	/**
+	 * Whether the handler is available to authenticated connections only.
+	 */
+	private final boolean auth;
+
+	private BiConsumer<Connection, MSG> handler;
+
+	/**
+	 * Handle a request. An {@link ExeletContext} is only allocated for handlers
+	 * that accept one.
+	 *
+	 * @param connector The connection which received the request
+	 * @param request   The request
+	 */
+	public void accept(Connection connector, MSG request) {
+		handler.accept(connector, request);
+	}
 
 	/**
 	 * Consume an {@link ExeletContext}.
@@ -42,34 +101,34 @@ public class ExeletMethod {
 	 * @param context The context which wraps a request
 	 */
 	public void accept(ExeletContext context) {
-		handler.accept(context);
+		accept(context.connector, context.request);
 	}
 
+	@SuppressWarnings("unchecked")
 	public ExeletMethod(Method method) throws Exception {
 		metadata = checkNotNull(method.getAnnotation(Exelet.Handler.class), "Method not a handler");
 		name = method.getName();
-
-		// Obtain a handle to the static method
-		var handle = MethodHandles.publicLookup().unreflect(method);
+		auth = metadata.auth();
 
 		// TYPE 2
 		if (method.getReturnType() == MessageLiteOrBuilder.class && method.getParameterCount() == 1
 				&& MessageLite.class.isAssignableFrom(method.getParameterTypes()[0])) {
 
-			var parseFrom = MethodHandles.publicLookup()
-					.unreflect(method.getParameterTypes()[0].getMethod("parseFrom", ByteString.class));
+			var parser = MsgUtil.parser((Class<? extends MessageLite>) method.getParameterTypes()[0]);
+			var invoker = bind(method, Type2.class,
+					MethodType.methodType(MessageLiteOrBuilder.class, MessageLite.class));
 
-			handler = context -> {
+			handler = (connector, request) -> {
 				// Access control
-				if (!context.connector.get(ConnectionOid.AUTHENTICATED).asBoolean() && metadata.auth()) {
+				if (auth && !connector.isAuthenticated()) {
 					return;
 				}
 
 				try {
-					var rs = (MessageLiteOrBuilder) handle.invoke(parseFrom.invoke(context.request.getPayload()));
+					var rs = invoker.invoke(parser.parseFrom(request.getPayload()));
 
 					if (rs != null)
-						context.connector.send(MsgUtil.rs(context.request, rs));
+						connector.send(MsgUtil.rs(request, rs));
 				} catch (Throwable e) {
 					log.error("Failed to handle message", e);
 					// TODO error outcome
@@ -81,17 +140,17 @@ public class ExeletMethod {
 		else if (method.getReturnType() == void.class && method.getParameterCount() == 1
 				&& MessageLite.class.isAssignableFrom(method.getParameterTypes()[0])) {
 
-			var parseFrom = MethodHandles.publicLookup()
-					.unreflect(method.getParameterTypes()[0].getMethod("parseFrom", ByteString.class));
+			var parser = MsgUtil.parser((Class<? extends MessageLite>) method.getParameterTypes()[0]);
+			var invoker = bind(method, Type1.class, MethodType.methodType(void.class, MessageLite.class));
 
-			handler = context -> {
+			handler = (connector, request) -> {
 				// Access control
-				if (!context.connector.get(ConnectionOid.AUTHENTICATED).asBoolean() && metadata.auth()) {
+				if (auth && !connector.isAuthenticated()) {
 					return;
 				}
 
 				try {
-					handle.invoke(parseFrom.invoke(context.request.getPayload()));
+					invoker.invoke(parser.parseFrom(request.getPayload()));
 				} catch (Throwable e) {
 					log.error("Failed to handle message", e);
 					// No error response because this handler doesn't send a response normally
@@ -104,17 +163,20 @@ public class ExeletMethod {
 				&& method.getParameterTypes()[0] == ExeletContext.class
 				&& MessageLite.class.isAssignableFrom(method.getParameterTypes()[1])) {
 
-			var parseFrom = MethodHandles.publicLookup()
-					.unreflect(method.getParameterTypes()[1].getMethod("parseFrom", ByteString.class));
+			var parser = MsgUtil.parser((Class<? extends MessageLite>) method.getParameterTypes()[1]);
+			var invoker = bind(method, Type3.class,
+					MethodType.methodType(void.class, ExeletContext.class, MessageLite.class));
 
-			handler = context -> {
+			handler = (connector, request) -> {
 				// Access control
-				if (!context.connector.get(ConnectionOid.AUTHENTICATED).asBoolean() && metadata.auth()) {
+				if (auth && !connector.isAuthenticated()) {
 					return;
 				}
 
+				var context = new ExeletContext(connector, request);
+
 				try {
-					handle.invoke(context, parseFrom.invoke(context.request.getPayload()));
+					invoker.invoke(context, parser.parseFrom(request.getPayload()));
 				} catch (Throwable e) {
 					log.error("Failed to handle message", e);
 					// TODO error outcome
@@ -137,18 +199,20 @@ public class ExeletMethod {
 				&& method.getParameterTypes()[0] == ExeletContext.class
 				&& MessageLite.class.isAssignableFrom(method.getParameterTypes()[1])) {
 
-			var parseFrom = MethodHandles.publicLookup()
-					.unreflect(method.getParameterTypes()[1].getMethod("parseFrom", ByteString.class));
+			var parser = MsgUtil.parser((Class<? extends MessageLite>) method.getParameterTypes()[1]);
+			var invoker = bind(method, Type4.class,
+					MethodType.methodType(MessageLiteOrBuilder.class, ExeletContext.class, MessageLite.class));
 
-			handler = context -> {
+			handler = (connector, request) -> {
 				// Access control
-				if (!context.connector.get(ConnectionOid.AUTHENTICATED).asBoolean() && metadata.auth()) {
+				if (auth && !connector.isAuthenticated()) {
 					return;
 				}
 
+				var context = new ExeletContext(connector, request);
+
 				try {
-					var rs = (MessageLiteOrBuilder) handle.invoke(context,
-							parseFrom.invoke(context.request.getPayload()));
+					var rs = invoker.invoke(context, parser.parseFrom(request.getPayload()));
 					if (rs != null)
 						context.connector.send(MsgUtil.rs(context.request, rs));
 				} catch (Throwable e) {
@@ -174,4 +238,33 @@ public class ExeletMethod {
 		type = MsgUtil.getPayloadType(method);
 	}
 
+	/**
+	 * Generate an invoker class which calls the given static handler method
+	 * directly.
+	 *
+	 * @param <T>     The invoker type
+	 * @param method  The handler method
+	 * @param invoker The invoker type
+	 * @param erased  The invoker's method type
+	 * @return A new invoker
+	 */
+	private static <T> T bind(Method method, Class<T> invoker, MethodType erased) throws Exception {
+
+		// The generated class lives in this module, so it must be able to read the
+		// module that declares the handler
+		ExeletMethod.class.getModule().addReads(method.getDeclaringClass().getModule());
+
+		var handle = MethodHandles.publicLookup().unreflect(method);
+
+		try {
+			var site = LambdaMetafactory.metafactory(MethodHandles.lookup(), "invoke",
+					MethodType.methodType(invoker), erased, handle, handle.type());
+
+			return invoker.cast(site.getTarget().invoke());
+		} catch (Exception e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalArgumentException("Failed to bind handler: " + method.getName(), e);
+		}
+	}
 }
@@ -15,9 +15,7 @@ import static com.sandpolis.core.instance.Metatypes.InstanceType.SERVER;
 import static com.sandpolis.core.instance.plugin.PluginStore.PluginStore;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Consumer;
 
 import org.slf4j.Logger;
@@ -25,29 +23,73 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.eventbus.Subscribe;
 import com.sandpolis.core.foundation.ConfigStruct;
+import com.sandpolis.core.instance.Metatypes.InstanceType;
 import com.sandpolis.core.instance.plugin.PluginStore.PluginLoadedEvent;
 import com.sandpolis.core.instance.plugin.PluginStore.PluginUnloadedEvent;
 import com.sandpolis.core.instance.store.ConfigurableStore;
 import com.sandpolis.core.instance.store.StoreBase;
 import com.sandpolis.core.net.exelet.ExeletStore.ExeletStoreConfig;
+import com.sandpolis.core.net.network.NetworkExelet;
 import com.sandpolis.core.net.plugin.ExeletProvider;
 import com.sandpolis.core.net.util.MsgUtil;
 
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
+
+/**
+ * {@link ExeletStore} compiles the handlers of every registered {@link Exelet}
+ * into a dispatch table for each remote instance type.
+ *
+ * <p>
+ * Dispatch tables are never modified once published. Registering or
+ * unregistering an {@link Exelet} builds new tables which replace the old ones
+ * atomically, so readers never need to synchronize.
+ */
 public class ExeletStore extends StoreBase implements ConfigurableStore<ExeletStoreConfig> {
 
 	private static final Logger log = LoggerFactory.getLogger(ExeletStore.class);
 
-	Map<Integer, ExeletMethod> client;
+	private volatile IntObjectMap<ExeletMethod> client;
 
-	Map<Integer, ExeletMethod> server;
+	private volatile IntObjectMap<ExeletMethod> server;
 
-	Map<Integer, ExeletMethod> agent;
+	private volatile IntObjectMap<ExeletMethod> agent;
 
 	public ExeletStore() {
 		super(log);
 	}
 
+	/**
+	 * Get the current dispatch table for messages that originate from the given
+	 * instance type.
+	 *
+	 * @param instance The remote instance type
+	 * @return The dispatch table or {@code null} if the instance is unsupported
+	 */
+	IntObjectMap<ExeletMethod> handlers(InstanceType instance) {
+		switch (instance) {
+		case AGENT:
+			return agent;
+		case SERVER:
+			return server;
+		case CLIENT:
+			return client;
+		default:
+			return null;
+		}
+	}
+
+	private static IntObjectMap<ExeletMethod> copy(IntObjectMap<ExeletMethod> table) {
+		var copy = new IntObjectHashMap<ExeletMethod>(Math.max(8, table.size() * 2));
+		copy.putAll(table);
+		return copy;
+	}
+
 	private synchronized void register(Class<? extends Exelet> exelet) {
+		var client = copy(this.client);
+		var server = copy(this.server);
+		var agent = copy(this.agent);
+
 		for (var method : exelet.getMethods()) {
 			var metadata = method.getAnnotation(Exelet.Handler.class);
 			if (metadata != null) {
@@ -70,16 +112,31 @@ public class ExeletStore extends StoreBase implements ConfigurableStore<ExeletSt
 					agent.put(exeletMethod.type, exeletMethod);
 			}
 		}
+
+		this.client = client;
+		this.server = server;
+		this.agent = agent;
 	}
 
 	private synchronized void unregister(Class<? extends Exelet> exelet) {
+		var client = copy(this.client);
+		var server = copy(this.server);
+		var agent = copy(this.agent);
+
 		for (var method : exelet.getMethods()) {
+			if (method.getAnnotation(Exelet.Handler.class) == null)
+				continue;
+
 			int removal = MsgUtil.getPayloadType(method);
 
 			client.remove(removal);
 			server.remove(removal);
 			agent.remove(removal);
 		}
+
+		this.client = client;
+		this.server = server;
+		this.agent = agent;
 	}
 
 	@Subscribe
@@ -99,9 +156,12 @@ public class ExeletStore extends StoreBase implements ConfigurableStore<ExeletSt
 		var config = new ExeletStoreConfig();
 		configurator.accept(config);
 
-		client = new HashMap<>();
-		server = new HashMap<>();
-		agent = new HashMap<>();
+		client = new IntObjectHashMap<>();
+		server = new IntObjectHashMap<>();
+		agent = new IntObjectHashMap<>();
+
+		// Exelets for this module's own messages
+		register(NetworkExelet.class);
 
 		config.exelets.forEach(this::register);
 		PluginStore.register(this);
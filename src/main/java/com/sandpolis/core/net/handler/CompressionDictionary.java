@@ -0,0 +1,87 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Adler32;
+
+import com.google.protobuf.MessageLite;
+import com.sandpolis.core.net.util.MsgUtil;
+
+/**
+ * A registry of preset dictionaries for frame compression.
+ *
+ * <p>
+ * A dictionary is registered for a payload type by the module that owns the
+ * type, and is identified by its zlib DICTID (the Adler-32 checksum of the
+ * dictionary). Instances exchange the IDs they know during the CVID handshake
+ * and only use the dictionaries they have in common.
+ *
+ * @since 7.0.0
+ */
+public final class CompressionDictionary {
+
+	/**
+	 * Dictionaries keyed by DICTID.
+	 */
+	private static final Map<Integer, byte[]> dictionaries = new ConcurrentHashMap<>();
+
+	/**
+	 * DICTIDs keyed by payload type.
+	 */
+	private static final Map<Integer, Integer> payloadTypes = new ConcurrentHashMap<>();
+
+	/**
+	 * Register a dictionary for the given payload type. The dictionary should
+	 * contain byte sequences that are common in serialized messages of the type,
+	 * with the most common at the end.
+	 *
+	 * @param type       The payload type
+	 * @param dictionary The dictionary
+	 * @return The dictionary's ID
+	 */
+	public static int register(Class<? extends MessageLite> type, byte[] dictionary) {
+		var adler = new Adler32();
+		adler.update(dictionary);
+
+		int id = (int) adler.getValue();
+		dictionaries.put(id, dictionary.clone());
+		payloadTypes.put(MsgUtil.getPayloadType(type), id);
+		return id;
+	}
+
+	/**
+	 * @param id The dictionary ID
+	 * @return The dictionary or {@code null} if it's not registered
+	 */
+	public static byte[] get(int id) {
+		return dictionaries.get(id);
+	}
+
+	/**
+	 * @param payloadType The payload type
+	 * @return The ID of the payload type's dictionary or 0 if it has none
+	 */
+	public static int forPayloadType(int payloadType) {
+		return payloadTypes.getOrDefault(payloadType, 0);
+	}
+
+	/**
+	 * @return The IDs of every registered dictionary
+	 */
+	public static Set<Integer> ids() {
+		return Set.copyOf(dictionaries.keySet());
+	}
+
+	private CompressionDictionary() {
+	}
+}
@@ -0,0 +1,181 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * {@link FlushBatchingHandler} coalesces flushes so that many small messages
+ * can be written to the socket with a single syscall. A deferred flush is
+ * performed once the batch reaches its maximum size or the maximum delay
+ * expires, whichever happens first.
+ *
+ * <p>
+ * This handler should be placed near the head of the pipeline so that
+ * handshake traffic generated by handlers closer to the head is not delayed.
+ *
+ * @since 7.0.0
+ */
+public final class FlushBatchingHandler extends ChannelDuplexHandler {
+
+	/**
+	 * The maximum number of flushes that can be deferred.
+	 */
+	private final int maxBatchSize;
+
+	/**
+	 * The maximum amount of time a flush can be deferred in microseconds.
+	 */
+	private final long maxDelay;
+
+	/**
+	 * The number of flushes that are currently deferred.
+	 */
+	private int pendingFlushes;
+
+	/**
+	 * The number of messages written since the last flush.
+	 */
+	private int pendingWrites;
+
+	/**
+	 * The task that performs the deferred flush if the batch doesn't fill up.
+	 */
+	private ScheduledFuture<?> scheduledFlush;
+
+	private volatile long batchCount;
+
+	private volatile long messageCount;
+
+	private volatile int largestBatch;
+
+	/**
+	 * @param maxBatchSize The maximum number of flushes to coalesce
+	 * @param maxDelay     The maximum flush delay in microseconds
+	 */
+	public FlushBatchingHandler(int maxBatchSize, long maxDelay) {
+		if (maxBatchSize <= 0)
+			throw new IllegalArgumentException("Invalid batch size: " + maxBatchSize);
+		if (maxDelay < 0)
+			throw new IllegalArgumentException("Invalid delay: " + maxDelay);
+
+		this.maxBatchSize = maxBatchSize;
+		this.maxDelay = maxDelay;
+	}
+
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+		pendingWrites++;
+		ctx.write(msg, promise);
+	}
+
+	@Override
+	public void flush(ChannelHandlerContext ctx) throws Exception {
+		if (++pendingFlushes >= maxBatchSize) {
+			flushNow(ctx);
+		} else if (scheduledFlush == null) {
+			scheduledFlush = ctx.executor().schedule(() -> flushNow(ctx), maxDelay, TimeUnit.MICROSECONDS);
+		}
+	}
+
+	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+		// Don't hold back data that could relieve the outbound buffer
+		if (!ctx.channel().isWritable())
+			flushNow(ctx);
+
+		ctx.fireChannelWritabilityChanged();
+	}
+
+	@Override
+	public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+		flushNow(ctx);
+		ctx.fireExceptionCaught(cause);
+	}
+
+	@Override
+	public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+		flushNow(ctx);
+		ctx.disconnect(promise);
+	}
+
+	@Override
+	public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+		flushNow(ctx);
+		ctx.close(promise);
+	}
+
+	@Override
+	public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+		flushNow(ctx);
+	}
+
+	private void flushNow(ChannelHandlerContext ctx) {
+		if (scheduledFlush != null) {
+			scheduledFlush.cancel(false);
+			scheduledFlush = null;
+		}
+
+		if (pendingFlushes > 0) {
+			batchCount++;
+			messageCount += pendingWrites;
+			largestBatch = Math.max(largestBatch, pendingWrites);
+
+			pendingFlushes = 0;
+			pendingWrites = 0;
+			ctx.flush();
+		}
+	}
+
+	/**
+	 * Get the number of flushes that have actually been performed.
+	 *
+	 * @return The batch count
+	 */
+	public long getBatchCount() {
+		return batchCount;
+	}
+
+	/**
+	 * Get the number of messages that have been flushed in batches.
+	 *
+	 * @return The message count
+	 */
+	public long getMessageCount() {
+		return messageCount;
+	}
+
+	/**
+	 * Get the average number of messages per flush.
+	 *
+	 * @return The average batch size
+	 */
+	public double getAverageBatchSize() {
+		long batches = batchCount;
+		if (batches == 0)
+			return 0;
+
+		return (double) messageCount / batches;
+	}
+
+	/**
+	 * Get the largest number of messages that have been flushed at once.
+	 *
+	 * @return The largest batch size
+	 */
+	public int getLargestBatchSize() {
+		return largestBatch;
+	}
+}
@@ -0,0 +1,350 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collection;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.sandpolis.core.net.Channel.ChannelCompression;
+import com.sandpolis.core.net.connection.CompressionStats;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
+
+/**
+ * {@link FrameCompressionHandler} compresses individual frames on a connection.
+ *
+ * <p>
+ * The handler sits between the frame decoder and the rest of the pipeline, so
+ * it sees inbound frames without their length prefix and outbound frames with
+ * it. It passes everything through unchanged until compression is negotiated
+ * in the CVID handshake (see {@link #enable(Collection)}). After that, every
+ * frame starts with a flag byte:
+ * <ul>
+ * <li><b>0:</b> The rest of the frame is an uncompressed {@code MSG}.</li>
+ * <li><b>1:</b> A varint containing the uncompressed size, followed by a zlib
+ * stream. If the stream was compressed with a preset dictionary, the
+ * dictionary is identified by the DICTID in the zlib header.</li>
+ * </ul>
+ *
+ * <p>
+ * Frames below the threshold, or that don't get smaller when compressed, are
+ * sent uncompressed.
+ *
+ * <p>
+ * Only client-server connections install this handler. Peer connections have
+ * no CVID handshake in which to negotiate compression.
+ *
+ * <p>
+ * The time reported in {@link CompressionStats} is the CPU time of the event
+ * loop thread, so it doesn't include time the thread spent descheduled. If the
+ * JVM can't measure thread CPU time, elapsed time is reported instead.
+ *
+ * @since 7.0.0
+ */
+public final class FrameCompressionHandler extends ChannelDuplexHandler {
+
+	private static final byte FLAG_RAW = 0;
+	private static final byte FLAG_DEFLATE = 1;
+
+	/**
+	 * The maximum size of a decompressed frame.
+	 */
+	private static final int MAX_LENGTH = 64 * 1024 * 1024;
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Whether thread CPU time can be measured.
+	 */
+	private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported()
+			&& THREADS.isThreadCpuTimeEnabled();
+
+	private final ChannelCompression algorithm;
+
+	/**
+	 * The minimum size of a frame that is worth compressing.
+	 */
+	private final int threshold;
+
+	private final CompressionStats stats = new CompressionStats();
+
+	/**
+	 * Whether compression has been negotiated. Only the event loop reads and
+	 * writes this field.
+	 */
+	private boolean enabled;
+
+	/**
+	 * The dictionaries that both instances know keyed by DICTID.
+	 */
+	private IntObjectMap<byte[]> dictionaries;
+
+	private Deflater deflater;
+
+	private Inflater inflater;
+
+	public FrameCompressionHandler(ChannelCompression algorithm, int threshold) {
+		if (algorithm != ChannelCompression.DEFLATE)
+			throw new IllegalArgumentException("Unsupported compression: " + algorithm);
+
+		this.algorithm = algorithm;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Start compressing frames. This must be called on the channel's event loop
+	 * between two frames.
+	 *
+	 * @param dictionaries The IDs of the dictionaries both instances know
+	 */
+	public void enable(Collection<Integer> dictionaries) {
+		this.dictionaries = new IntObjectHashMap<>();
+		for (int id : dictionaries) {
+			var dictionary = CompressionDictionary.get(id);
+			if (dictionary != null)
+				this.dictionaries.put(id, dictionary);
+		}
+
+		deflater = new Deflater();
+		inflater = new Inflater();
+		enabled = true;
+	}
+
+	public ChannelCompression getAlgorithm() {
+		return algorithm;
+	}
+
+	public CompressionStats getStats() {
+		return stats;
+	}
+
+	@Override
+	public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+		if (deflater != null)
+			deflater.end();
+		if (inflater != null)
+			inflater.end();
+	}
+
+	@Override
+	public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+		if (!enabled || !(msg instanceof ByteBuf)) {
+			ctx.fireChannelRead(msg);
+			return;
+		}
+
+		ByteBuf frame = (ByteBuf) msg;
+		ByteBuf out;
+		try {
+			out = decompress(ctx, frame);
+		} finally {
+			frame.release();
+		}
+
+		ctx.fireChannelRead(out);
+	}
+
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+		if (!enabled || !(msg instanceof ByteBuf)) {
+			ctx.write(msg, promise);
+			return;
+		}
+
+		ByteBuf frame = (ByteBuf) msg;
+		ByteBuf out;
+		try {
+			out = compress(ctx, frame);
+		} finally {
+			frame.release();
+		}
+
+		ctx.write(out, promise);
+	}
+
+	/**
+	 * @param frame A length-prefixed frame
+	 * @return A new length-prefixed frame
+	 */
+	private ByteBuf compress(ChannelHandlerContext ctx, ByteBuf frame) {
+		int length = readRawVarint32(frame);
+		if (length != frame.readableBytes())
+			throw new CorruptedFrameException("Expected a single frame");
+
+		if (length >= threshold) {
+			long start = time();
+
+			int dictionary = CompressionDictionary.forPayloadType(MsgDecoder.peekPayloadType(frame));
+			ByteBuf body = deflate(ctx, frame, dictionaries.get(dictionary));
+
+			if (body != null) {
+				int wire = 1 + computeRawVarint32Size(length) + body.readableBytes();
+
+				ByteBuf header = ctx.alloc().ioBuffer(computeRawVarint32Size(wire) + wire - body.readableBytes());
+				writeRawVarint32(header, wire);
+				header.writeByte(FLAG_DEFLATE);
+				writeRawVarint32(header, length);
+
+				stats.addOutbound(length, wire, time() - start);
+				return ctx.alloc().compositeBuffer(2).addComponents(true, header, body);
+			}
+		}
+
+		ByteBuf header = ctx.alloc().ioBuffer(computeRawVarint32Size(length + 1) + 1);
+		writeRawVarint32(header, length + 1);
+		header.writeByte(FLAG_RAW);
+
+		stats.addOutbound(length, length + 1, 0);
+		return ctx.alloc().compositeBuffer(2).addComponents(true, header, frame.retainedSlice());
+	}
+
+	/**
+	 * @return The compressed frame or {@code null} if the frame is incompressible
+	 */
+	private ByteBuf deflate(ChannelHandlerContext ctx, ByteBuf frame, byte[] dictionary) {
+		int length = frame.readableBytes();
+
+		deflater.reset();
+		if (dictionary != null)
+			deflater.setDictionary(dictionary);
+
+		deflater.setInput(frame.nioBuffer());
+		deflater.finish();
+
+		// Compression is only worthwhile if the result is smaller
+		ByteBuf out = ctx.alloc().ioBuffer(length, length);
+		var output = out.nioBuffer(0, length);
+		while (!deflater.finished() && output.hasRemaining()) {
+			deflater.deflate(output);
+		}
+
+		if (!deflater.finished()) {
+			out.release();
+			return null;
+		}
+
+		return out.writerIndex(output.position());
+	}
+
+	/**
+	 * @param frame A frame without its length prefix
+	 * @return A new frame without its length prefix
+	 */
+	private ByteBuf decompress(ChannelHandlerContext ctx, ByteBuf frame) throws DataFormatException {
+		if (!frame.isReadable())
+			throw new CorruptedFrameException("Missing compression flag");
+
+		int wire = frame.readableBytes();
+
+		switch (frame.readByte()) {
+		case FLAG_RAW:
+			stats.addInbound(wire - 1, wire, 0);
+			return frame.retainedSlice();
+		case FLAG_DEFLATE:
+			long start = time();
+
+			int length = readRawVarint32(frame);
+			if (length < 0 || length > MAX_LENGTH)
+				throw new CorruptedFrameException("Invalid frame length: " + length);
+
+			ByteBuf out = inflate(ctx, frame, length);
+			stats.addInbound(length, wire, time() - start);
+			return out;
+		default:
+			throw new CorruptedFrameException("Unknown compression flag");
+		}
+	}
+
+	private ByteBuf inflate(ChannelHandlerContext ctx, ByteBuf frame, int length) throws DataFormatException {
+		ByteBuf out = ctx.alloc().ioBuffer(length, length);
+		try {
+			inflater.reset();
+			inflater.setInput(frame.nioBuffer());
+
+			var output = out.nioBuffer(0, length);
+			while (!inflater.finished()) {
+				if (inflater.inflate(output) != 0)
+					continue;
+
+				if (inflater.needsDictionary()) {
+					var dictionary = dictionaries.get(inflater.getAdler());
+					if (dictionary == null)
+						throw new CorruptedFrameException("Unknown dictionary: " + inflater.getAdler());
+
+					inflater.setDictionary(dictionary);
+				} else if (inflater.needsInput() || !output.hasRemaining()) {
+					throw new CorruptedFrameException("Invalid compressed frame");
+				}
+			}
+
+			if (output.position() != length)
+				throw new CorruptedFrameException("Invalid compressed frame");
+
+			return out.writerIndex(length);
+		} catch (Exception e) {
+			out.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return The current thread's CPU time in nanoseconds, or the elapsed time if
+	 *         CPU time can't be measured
+	 */
+	private static long time() {
+		return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+	}
+
+	private static int readRawVarint32(ByteBuf buffer) {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			if (!buffer.isReadable())
+				throw new CorruptedFrameException("Truncated varint");
+
+			byte b = buffer.readByte();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0)
+				return value;
+		}
+
+		throw new CorruptedFrameException("Malformed varint");
+	}
+
+	private static void writeRawVarint32(ByteBuf out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int computeRawVarint32Size(int value) {
+		if ((value & (0xffffffff << 7)) == 0)
+			return 1;
+		if ((value & (0xffffffff << 14)) == 0)
+			return 2;
+		if ((value & (0xffffffff << 21)) == 0)
+			return 3;
+		if ((value & (0xffffffff << 28)) == 0)
+			return 4;
+
+		return 5;
+	}
+}
@@ -56,6 +56,7 @@ public class ManagementHandler extends ChannelInboundHandlerAdapter {
 			handshake_future.cancel(true);
 		}
 
+		ConnectionStore.unindex(connection);
 		ConnectionStore.removeValue(connection);
 		ConnectionStore.postAsync(new SockLostEvent(connection));
 		ctx.close();
@@ -88,6 +89,7 @@ public class ManagementHandler extends ChannelInboundHandlerAdapter {
 				var handshake_future = ctx.channel().attr(ChannelConstant.HANDSHAKE_FUTURE).get();
 
 				if (event.success) {
+					ConnectionStore.index(connection);
 					handshake_future.setSuccess(null);
 					ConnectionStore.postAsync(new SockEstablishedEvent(connection));
 				} else {
@@ -0,0 +1,172 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.protobuf.WireFormat;
+import com.sandpolis.core.net.Message.MSG;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+
+/**
+ * {@link MsgDecoder} decodes a frame into a {@link MSG} envelope.
+ *
+ * <p>
+ * Unlike a general-purpose {@link io.netty.handler.codec.protobuf.ProtobufDecoder},
+ * the envelope fields are read directly and the frame is copied out of the
+ * (pooled) buffer exactly once. The payload is a view of that copy rather than
+ * a second copy, and it's only parsed by whichever handler finally consumes the
+ * message.
+ *
+ * @since 7.0.0
+ */
+@Sharable
+public final class MsgDecoder extends MessageToMessageDecoder<ByteBuf> {
+
+	private static final int TAG_TO = WireFormat.makeTag(MSG.TO_FIELD_NUMBER, WireFormat.WIRETYPE_VARINT);
+	private static final int TAG_FROM = WireFormat.makeTag(MSG.FROM_FIELD_NUMBER, WireFormat.WIRETYPE_VARINT);
+	private static final int TAG_ID = WireFormat.makeTag(MSG.ID_FIELD_NUMBER, WireFormat.WIRETYPE_VARINT);
+	private static final int TAG_PAYLOAD_TYPE = WireFormat.makeTag(MSG.PAYLOAD_TYPE_FIELD_NUMBER,
+			WireFormat.WIRETYPE_VARINT);
+	private static final int TAG_PAYLOAD = WireFormat.makeTag(MSG.PAYLOAD_FIELD_NUMBER,
+			WireFormat.WIRETYPE_LENGTH_DELIMITED);
+
+	@Override
+	protected void decode(ChannelHandlerContext ctx, ByteBuf frame, List<Object> out) throws Exception {
+		out.add(decode(frame));
+	}
+
+	/**
+	 * Read the destination CVID of an encoded {@link MSG} without decoding it. This
+	 * relies on {@code to} being the first field that is serialized.
+	 *
+	 * @param frame The frame
+	 * @return The value of {@link MSG#getTo()}
+	 */
+	public static int peekTo(ByteBuf frame) {
+		int index = frame.readerIndex();
+		int end = frame.writerIndex();
+
+		if (index == end || frame.getByte(index++) != TAG_TO)
+			return 0;
+
+		// Negative values are sign-extended to ten bytes
+		long value = 0;
+		for (int shift = 0; shift < 64 && index < end; shift += 7) {
+			byte b = frame.getByte(index++);
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0)
+				return (int) value;
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Read the source CVID of an encoded {@link MSG} without decoding it.
+	 *
+	 * @param frame The frame
+	 * @return The value of {@link MSG#getFrom()}
+	 */
+	public static int peekFrom(ByteBuf frame) {
+		return (int) peekVarint(frame, TAG_FROM);
+	}
+
+	/**
+	 * Read the payload type of an encoded {@link MSG} without decoding it.
+	 *
+	 * @param frame The frame
+	 * @return The value of {@link MSG#getPayloadType()}
+	 */
+	public static int peekPayloadType(ByteBuf frame) {
+		return (int) peekVarint(frame, TAG_PAYLOAD_TYPE);
+	}
+
+	/**
+	 * Read one of the varint envelope fields that precede the payload.
+	 *
+	 * @param frame  The frame
+	 * @param target The field's tag
+	 * @return The field's value or 0 if it's not present
+	 */
+	private static long peekVarint(ByteBuf frame, int target) {
+		int index = frame.readerIndex();
+		int end = frame.writerIndex();
+
+		// The envelope fields before the payload are all varints
+		while (index < end) {
+			byte tag = frame.getByte(index++);
+			if (tag != TAG_TO && tag != TAG_FROM && tag != TAG_ID && tag != TAG_PAYLOAD_TYPE)
+				return 0;
+
+			long value = 0;
+			for (int shift = 0;; shift += 7) {
+				if (shift >= 64 || index == end)
+					return 0;
+
+				byte b = frame.getByte(index++);
+				value |= (long) (b & 0x7F) << shift;
+				if (b >= 0)
+					break;
+			}
+
+			if (tag == target)
+				return value;
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Decode a {@link MSG} from the readable bytes of the given frame. The frame's
+	 * reader index is not modified.
+	 *
+	 * @param frame The frame
+	 * @return The decoded message
+	 * @throws IOException If the frame is not a valid message
+	 */
+	public static MSG decode(ByteBuf frame) throws IOException {
+		byte[] array = ByteBufUtil.getBytes(frame);
+		var input = CodedInputStream.newInstance(array);
+		var msg = MSG.newBuilder();
+
+		int tag;
+		while ((tag = input.readTag()) != 0) {
+			if (tag == TAG_TO) {
+				msg.setTo(input.readInt32());
+			} else if (tag == TAG_FROM) {
+				msg.setFrom(input.readInt32());
+			} else if (tag == TAG_ID) {
+				msg.setId(input.readInt32());
+			} else if (tag == TAG_PAYLOAD_TYPE) {
+				msg.setPayloadType(input.readInt32());
+			} else if (tag == TAG_PAYLOAD) {
+				int length = input.readRawVarint32();
+				int offset = input.getTotalBytesRead();
+				input.skipRawBytes(length);
+
+				// Nothing else can reach the array, so it's safe to wrap
+				msg.setPayload(UnsafeByteOperations.unsafeWrap(array, offset, length));
+			} else if (!input.skipField(tag)) {
+				break;
+			}
+		}
+
+		return msg.build();
+	}
+}
@@ -0,0 +1,57 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import com.google.protobuf.CodedOutputStream;
+import com.sandpolis.core.net.Message.MSG;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+/**
+ * {@link MsgEncoder} encodes a {@link MSG} and its length prefix in a single
+ * pass.
+ *
+ * <p>
+ * The serialized size is computed once (and cached by the message), a buffer of
+ * exactly the right size is taken from the channel's allocator, and the varint
+ * length and envelope are written straight into it. This replaces a
+ * {@link io.netty.handler.codec.protobuf.ProtobufEncoder} followed by a
+ * {@link io.netty.handler.codec.protobuf.ProtobufVarint32LengthFieldPrepender},
+ * which needs an intermediate buffer per message.
+ *
+ * @since 7.0.0
+ */
+@Sharable
+public final class MsgEncoder extends MessageToByteEncoder<MSG> {
+
+	@Override
+	protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, MSG msg, boolean preferDirect) throws Exception {
+		int size = msg.getSerializedSize();
+		int length = CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+
+		return preferDirect ? ctx.alloc().ioBuffer(length, length) : ctx.alloc().heapBuffer(length, length);
+	}
+
+	@Override
+	protected void encode(ChannelHandlerContext ctx, MSG msg, ByteBuf out) throws Exception {
+		int size = msg.getSerializedSize();
+		int length = CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+
+		var output = CodedOutputStream.newInstance(out.nioBuffer(out.writerIndex(), length));
+		output.writeUInt32NoTag(size);
+		msg.writeTo(output);
+		output.flush();
+
+		out.writerIndex(out.writerIndex() + length);
+	}
+}
@@ -0,0 +1,146 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.connection.RttStats;
+import com.sandpolis.core.net.msg.MsgNetwork.RQ_Ping;
+import com.sandpolis.core.net.msg.MsgNetwork.RS_Ping;
+import com.sandpolis.core.net.util.MsgUtil;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.timeout.IdleState;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+
+/**
+ * This handler measures round-trip time on quiet connections and closes
+ * connections whose remote host stopped responding.
+ *
+ * <p>
+ * An {@link IdleStateHandler} earlier in the pipeline fires a reader idle event
+ * when nothing has been received for a while. If the remote host announced
+ * during the CVID handshake that it answers pings, a ping request is sent. If
+ * the ping is still unanswered on a later reader idle event after the timeout,
+ * the channel is closed rather than waiting for TCP to notice.
+ *
+ * <p>
+ * Ping requests from the remote host are answered immediately and never travel
+ * further down the pipeline. Remote hosts that predate pings never announce
+ * support for them, so they are never pinged and never closed for failing to
+ * answer.
+ *
+ * @since 7.0.0
+ */
+public final class PingHandler extends ChannelInboundHandlerAdapter {
+
+	private static final Logger log = LoggerFactory.getLogger(PingHandler.class);
+
+	private static final int RQ_PING = MsgUtil.getPayloadType(RQ_Ping.class);
+
+	private static final int RS_PING = MsgUtil.getPayloadType(RS_Ping.class);
+
+	private final RttStats stats = new RttStats();
+
+	/**
+	 * The ping timeout in nanoseconds.
+	 */
+	private final long timeout;
+
+	/**
+	 * Whether the remote host answers ping requests.
+	 */
+	private boolean enabled;
+
+	/**
+	 * The ID of the outstanding ping request.
+	 */
+	private int pingId;
+
+	/**
+	 * The time at which the outstanding ping request was sent or 0 if there is no
+	 * outstanding request.
+	 */
+	private long pingSent;
+
+	/**
+	 * @param timeout The amount of time in milliseconds to wait for a ping
+	 *                response
+	 */
+	public PingHandler(long timeout) {
+		this.timeout = TimeUnit.MILLISECONDS.toNanos(timeout);
+	}
+
+	@Override
+	public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+		if (msg instanceof MSG message) {
+			if (message.getPayloadType() == RQ_PING) {
+				ctx.writeAndFlush(MsgUtil.rs(message, RS_Ping.newBuilder()).build());
+				return;
+			}
+
+			if (message.getPayloadType() == RS_PING) {
+				if (pingSent != 0 && message.getId() == pingId) {
+					stats.add(System.nanoTime() - pingSent);
+					pingSent = 0;
+				}
+				return;
+			}
+		}
+
+		ctx.fireChannelRead(msg);
+	}
+
+	@Override
+	public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+		if (evt instanceof IdleStateEvent event) {
+			if (event.state() == IdleState.READER_IDLE) {
+				if (!enabled)
+					return;
+
+				if (pingSent == 0) {
+					var rq = MsgUtil.rq(RQ_Ping.newBuilder()).build();
+					pingId = rq.getId();
+					pingSent = System.nanoTime();
+					ctx.writeAndFlush(rq);
+				} else if (System.nanoTime() - pingSent >= timeout) {
+					log.debug("Closing unresponsive channel: {}", ctx.channel().id());
+					ctx.close();
+				}
+			}
+			return;
+		}
+
+		ctx.fireUserEventTriggered(evt);
+	}
+
+	/**
+	 * Begin pinging the remote host. This should only be called once the remote
+	 * host is known to answer ping requests.
+	 */
+	public void enable() {
+		enabled = true;
+	}
+
+	/**
+	 * Get the round-trip time statistics measured by this handler.
+	 *
+	 * @return The connection's RTT statistics
+	 */
+	public RttStats getRttStats() {
+		return stats;
+	}
+}
@@ -0,0 +1,109 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import static com.sandpolis.core.net.network.NetworkStore.NetworkStore;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sandpolis.core.instance.state.ConnectionOid;
+import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.channel.ChannelConstant;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+/**
+ * {@link RelayHandler} forwards frames that are addressed to other instances
+ * before they are decoded.
+ *
+ * <p>
+ * The destination is read directly from the frame (see
+ * {@link MsgDecoder#peekTo(ByteBuf)}). If the routing table has a next hop for
+ * it, the frame itself is written to the next hop's connection, so relayed
+ * messages are never decoded into a {@link MSG} or encoded again. Frames are
+ * only relayed once the connection's handshake has completed.
+ *
+ * <p>
+ * Relaying is subject to the same access control as authenticated exelets.
+ * Frames for other instances are dropped unless the connection they arrived on
+ * is authenticated and the frame's source is the connection's remote CVID.
+ *
+ * @since 7.0.0
+ */
+@Sharable
+public final class RelayHandler extends ChannelInboundHandlerAdapter {
+
+	private static final Logger log = LoggerFactory.getLogger(RelayHandler.class);
+
+	/**
+	 * The number of frames that have been relayed.
+	 */
+	private final LongAdder relayed = new LongAdder();
+
+	/**
+	 * The number of frames that have been dropped because the sender wasn't
+	 * allowed to relay them.
+	 */
+	private final LongAdder rejected = new LongAdder();
+
+	@Override
+	public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+		if (msg instanceof ByteBuf frame) {
+			int to = MsgDecoder.peekTo(frame);
+
+			if (to != 0 && to != NetworkStore.cvid()
+					&& ctx.channel().attr(ChannelConstant.HANDSHAKE_FUTURE).get().isSuccess()) {
+
+				var sock = ctx.channel().attr(ChannelConstant.SOCK).get();
+				if (!sock.isAuthenticated()
+						|| MsgDecoder.peekFrom(frame) != sock.get(ConnectionOid.REMOTE_CVID).asInt()) {
+					log.debug("Dropped frame for {} on channel: {}", to, ctx.channel().id());
+					rejected.increment();
+					frame.release();
+					return;
+				}
+
+				var hop = NetworkStore.nextHop(to);
+				if (hop != null && hop.link().channel() != ctx.channel()) {
+					relayed.increment();
+					hop.link().forward(frame);
+					return;
+				}
+			}
+		}
+
+		ctx.fireChannelRead(msg);
+	}
+
+	/**
+	 * Get the number of frames that have been relayed by this handler.
+	 *
+	 * @return The number of relayed frames
+	 */
+	public long getRelayedCount() {
+		return relayed.sum();
+	}
+
+	/**
+	 * Get the number of frames that have been dropped because the sender wasn't
+	 * allowed to relay them.
+	 *
+	 * @return The number of rejected frames
+	 */
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+}
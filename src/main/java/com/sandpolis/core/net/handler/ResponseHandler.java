@@ -9,11 +9,11 @@
 //============================================================================//
 package com.sandpolis.core.net.handler;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.sandpolis.core.net.Message.MSG;
 import com.sandpolis.core.net.message.MessageFuture;
+import com.sandpolis.core.net.util.StripedIntObjectMap;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
@@ -24,24 +24,54 @@ import io.netty.channel.SimpleChannelInboundHandler;
  */
 public final class ResponseHandler extends SimpleChannelInboundHandler<MSG> {
 
+	/**
+	 * The number of response map stripes. Every connection has its own map, and
+	 * only a few threads ever use it at once.
+	 */
+	private static final int RESPONSE_STRIPES = 4;
+
+	/**
+	 * The weight of each new sample in {@link #latency}.
+	 */
+	private static final double LATENCY_ALPHA = 0.2;
+
 	/**
 	 * When a response message is desired, a {@link MessageFuture} is placed into
 	 * this map. If a message is received which is not associated with any handler
 	 * in {@link #handles} and the message's ID is in {@link #responseMap}, the
 	 * MessageFuture is removed and notified.
+	 *
+	 * <p>
+	 * The map is keyed by primitive message ID. Requesting threads and the
+	 * handler's executor only contend when their IDs fall in the same stripe.
+	 */
+	private final StripedIntObjectMap<MessageFuture> responseMap;
+
+	/**
+	 * The maximum number of futures that have been waiting for a response at the
+	 * same time.
+	 */
+	private final AtomicInteger highWaterMark = new AtomicInteger();
+
+	/**
+	 * An exponentially weighted moving average of the time between a future's
+	 * creation and the arrival of its response in milliseconds, or -1 if no
+	 * response has arrived yet. Only the handler's executor writes this field.
 	 */
-	private final ConcurrentMap<Integer, MessageFuture> responseMap;
+	private volatile double latency = -1;
 
 	public ResponseHandler() {
-		this.responseMap = new ConcurrentHashMap<>();
+		this.responseMap = new StripedIntObjectMap<>(RESPONSE_STRIPES);
 	}
 
 	@Override
 	protected void channelRead0(ChannelHandlerContext ctx, MSG msg) throws Exception {
 		MessageFuture future = responseMap.remove(msg.getId());
-		if (future != null && !future.isCancelled()) {
-			// Give the message to a waiting Thread
-			future.setSuccess(msg);
+
+		if (future != null && future.trySuccess(msg)) {
+			// The message was given to a waiting Thread
+			double sample = (System.nanoTime() - future.getCreated()) / 1e6;
+			latency = latency < 0 ? sample : latency + LATENCY_ALPHA * (sample - latency);
 			return;
 		}
 
@@ -57,10 +87,19 @@ public final class ResponseHandler extends SimpleChannelInboundHandler<MSG> {
 	 * @return An existing future or the given parameter
 	 */
 	public MessageFuture putResponseFuture(int id, MessageFuture future) {
-		if (!responseMap.containsKey(id))
-			responseMap.put(id, future);
+		var existing = responseMap.putIfAbsent(id, future);
+		if (existing != null)
+			return existing;
+
+		highWaterMark.accumulateAndGet(responseMap.size(), Math::max);
 
-		return responseMap.get(id);
+		// Drop the entry if the future fails or times out before the response arrives
+		future.addListener(f -> {
+			if (!f.isSuccess())
+				responseMap.remove(id, future);
+		});
+
+		return future;
 	}
 
 	/**
@@ -71,4 +110,23 @@ public final class ResponseHandler extends SimpleChannelInboundHandler<MSG> {
 	public int getResponseCount() {
 		return responseMap.size();
 	}
+
+	/**
+	 * Get the average time it takes for a response to arrive.
+	 *
+	 * @return The response latency in milliseconds or -1 if unknown
+	 */
+	public double getResponseLatency() {
+		return latency;
+	}
+
+	/**
+	 * Get the maximum number of futures that have been waiting for a response at
+	 * the same time.
+	 *
+	 * @return The response map's high-water mark
+	 */
+	public int getResponseHighWaterMark() {
+		return highWaterMark.get();
+	}
 }
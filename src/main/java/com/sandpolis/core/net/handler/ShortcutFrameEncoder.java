@@ -10,15 +10,20 @@
 package com.sandpolis.core.net.handler;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.protobuf.ProtobufVarint32LengthFieldPrepender;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
 
 /**
- * {@link ShortcutFrameEncoder} is a protobuf frame encoder that also accepts
- * messages from other pipelines.
+ * {@link ShortcutFrameEncoder} accepts protobuf frames from other pipelines.
+ * Messages written by this pipeline are framed by {@link MsgEncoder} and pass
+ * through unchanged.
+ *
+ * <p>
+ * Shortcut frames are not copied. The length prefix is written into a small
+ * buffer from the channel's allocator and combined with the frame in a
+ * composite buffer.
  */
-public class ShortcutFrameEncoder extends ProtobufVarint32LengthFieldPrepender {
+public class ShortcutFrameEncoder extends ChannelOutboundHandlerAdapter {
 
 	private ChannelHandlerContext context;
 
@@ -28,17 +33,32 @@ public class ShortcutFrameEncoder extends ProtobufVarint32LengthFieldPrepender {
 		this.context = ctx;
 	}
 
-	public void shortcut(ByteBuf msg) throws Exception {
-		if (context == null)
+	/**
+	 * Write a frame that was produced by another pipeline. The frame is released
+	 * once it has been written.
+	 *
+	 * @param msg The frame without its length prefix
+	 */
+	public void shortcut(ByteBuf msg) {
+		if (context == null) {
+			msg.release();
 			throw new IllegalStateException("The handler has not been added to a pipeline");
+		}
 
-		try {
-			ByteBuf out = Unpooled.buffer(msg.readableBytes() + computeRawVarint32Size(msg.readableBytes()));
-			encode(context, msg, out);
-			context.writeAndFlush(out);
-		} finally {
-			msg.release();
+		int length = msg.readableBytes();
+
+		ByteBuf header = context.alloc().ioBuffer(computeRawVarint32Size(length));
+		writeRawVarint32(header, length);
+
+		context.writeAndFlush(context.alloc().compositeBuffer(2).addComponents(true, header, msg));
+	}
+
+	private void writeRawVarint32(ByteBuf out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
 		}
+		out.writeByte(value);
 	}
 
 	private int computeRawVarint32Size(final int value) {
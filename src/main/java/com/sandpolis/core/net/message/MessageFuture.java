@@ -19,7 +19,10 @@ import com.google.protobuf.MessageLite;
 import com.sandpolis.core.net.Message.MSG;
 import com.sandpolis.core.net.util.MsgUtil;
 
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
 import io.netty.util.concurrent.DefaultPromise;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import io.netty.util.concurrent.EventExecutor;
 
 /**
@@ -33,6 +36,18 @@ import io.netty.util.concurrent.EventExecutor;
  */
 public class MessageFuture extends DefaultPromise<MSG> {
 
+	/**
+	 * A timer shared by every {@link MessageFuture} so that a pending timeout only
+	 * occupies a slot in the timer wheel rather than an executor thread.
+	 */
+	private static final Timer TIMEOUT_TIMER = new HashedWheelTimer(
+			new DefaultThreadFactory("net.message.timeout", true), 10, TimeUnit.MILLISECONDS);
+
+	/**
+	 * The value of {@link System#nanoTime()} when the future was created.
+	 */
+	private final long created = System.nanoTime();
+
 	/**
 	 * Construct a {@link MessageFuture} that only completes if the message arrives.
 	 */
@@ -42,8 +57,8 @@ public class MessageFuture extends DefaultPromise<MSG> {
 	}
 
 	/**
-	 * Construct a {@link MessageFuture} that autocompletes if the given timeout
-	 * expires.
+	 * Construct a {@link MessageFuture} that fails with a
+	 * {@link MessageTimeoutException} if the given timeout expires.
 	 *
 	 * @param timeout The timeout value
 	 * @param unit    The timeout unit
@@ -53,30 +68,35 @@ public class MessageFuture extends DefaultPromise<MSG> {
 	}
 
 	/**
-	 * Construct a {@link MessageFuture} that autocompletes if the given timeout
-	 * expires.
+	 * Construct a {@link MessageFuture} that fails with a
+	 * {@link MessageTimeoutException} if the given timeout expires.
 	 *
-	 * @param timeout The timeout value
-	 * @param unit    The timeout unit
+	 * @param executor The executor which notifies listeners
+	 * @param timeout  The timeout value
+	 * @param unit     The timeout unit
 	 */
 	public MessageFuture(EventExecutor executor, long timeout, TimeUnit unit) {
 		super(executor);
-		var timer = executor.submit(() -> {
-			try {
-				await(timeout, unit);
-			} catch (InterruptedException e) {
-				// Ignore
-			} finally {
-				cancel(true);
-			}
-		});
+		var timer = TIMEOUT_TIMER.newTimeout(t -> {
+			tryFailure(new MessageTimeoutException(timeout, unit));
+		}, timeout, unit);
 
 		// Kill the timer when the message is received
 		addListener(message -> {
-			timer.cancel(true);
+			timer.cancel();
 		});
 	}
 
+	/**
+	 * Get the time at which this future was created, which is approximately when
+	 * the corresponding request was sent.
+	 *
+	 * @return The creation time in nanoseconds
+	 */
+	public long getCreated() {
+		return created;
+	}
+
 	/**
 	 * Handle the message response.
 	 *
@@ -89,7 +109,8 @@ public class MessageFuture extends DefaultPromise<MSG> {
 
 		if (!isDone()) {
 			addListener(message -> {
-				handler.handle(MsgUtil.unpack(this.getNow(), type));
+				if (message.isSuccess())
+					handler.handle(MsgUtil.unpack(this.getNow(), type));
 			});
 		}
 		return this;
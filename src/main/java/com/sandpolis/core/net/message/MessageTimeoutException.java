@@ -0,0 +1,28 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.message;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The failure cause of a {@link MessageFuture} whose timeout expired before the
+ * desired message arrived.
+ *
+ * @since 7.0.0
+ */
+public class MessageTimeoutException extends TimeoutException {
+
+	private static final long serialVersionUID = 1L;
+
+	public MessageTimeoutException(long timeout, TimeUnit unit) {
+		super("No message received within " + timeout + " " + unit.name().toLowerCase());
+	}
+}
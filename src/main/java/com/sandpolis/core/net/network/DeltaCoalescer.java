@@ -0,0 +1,144 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.network;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.sandpolis.core.net.msg.MsgNetwork.EV_NetworkDelta;
+import com.sandpolis.core.net.msg.MsgNetwork.EV_NetworkDelta.LinkAdded;
+import com.sandpolis.core.net.msg.MsgNetwork.EV_NetworkDelta.LinkRemoved;
+import com.sandpolis.core.net.msg.MsgNetwork.EV_NetworkDelta.NodeAdded;
+import com.sandpolis.core.net.msg.MsgNetwork.EV_NetworkDelta.NodeRemoved;
+import com.sandpolis.core.net.msg.MsgNetwork.LinkType;
+
+/**
+ * Accumulates topology changes and reduces them to the smallest equivalent
+ * {@link EV_NetworkDelta}.
+ *
+ * <p>
+ * A node that is added and then removed within the same batch cancels out
+ * entirely, and a link removal supersedes any earlier addition of the same link
+ * type between the same pair of nodes. Deltas produced by this class must be
+ * applied with removals before additions.
+ *
+ * @since 7.0.0
+ */
+final class DeltaCoalescer {
+
+	/**
+	 * The net change to a node.
+	 */
+	private static final class Change {
+
+		/**
+		 * Whether the receiver must remove its existing state first.
+		 */
+		boolean removed;
+
+		/**
+		 * Whether the node was added.
+		 */
+		boolean added;
+	}
+
+	/**
+	 * The net change to the links between a pair of nodes.
+	 */
+	private static final class LinkChange {
+
+		/**
+		 * The link types that the receiver must remove first.
+		 */
+		final Set<LinkType> removed = EnumSet.noneOf(LinkType.class);
+
+		/**
+		 * The link types that were added.
+		 */
+		final Set<LinkType> added = EnumSet.noneOf(LinkType.class);
+	}
+
+	private final Map<Integer, Change> nodes = new LinkedHashMap<>();
+
+	private final Map<Long, LinkChange> links = new LinkedHashMap<>();
+
+	/**
+	 * Build a key that identifies an undirected pair of nodes.
+	 */
+	private static long pair(int cvid1, int cvid2) {
+		return ((long) Math.min(cvid1, cvid2) << 32) | (Math.max(cvid1, cvid2) & 0xFFFFFFFFL);
+	}
+
+	public synchronized void nodeAdded(int cvid) {
+		nodes.computeIfAbsent(cvid, k -> new Change()).added = true;
+	}
+
+	public synchronized void nodeRemoved(int cvid) {
+		var change = nodes.computeIfAbsent(cvid, k -> new Change());
+		if (change.added && !change.removed) {
+			// The node was never visible to receivers
+			nodes.remove(cvid);
+		} else {
+			change.added = false;
+			change.removed = true;
+		}
+	}
+
+	public synchronized void linkAdded(int cvid1, int cvid2, LinkType type) {
+		links.computeIfAbsent(pair(cvid1, cvid2), k -> new LinkChange()).added.add(type);
+	}
+
+	public synchronized void linkRemoved(int cvid1, int cvid2, LinkType type) {
+		// Receivers may have the link from an earlier delta, so the removal is always
+		// retained
+		var change = links.computeIfAbsent(pair(cvid1, cvid2), k -> new LinkChange());
+		change.added.remove(type);
+		change.removed.add(type);
+	}
+
+	/**
+	 * @return Whether there are no pending changes
+	 */
+	public synchronized boolean isEmpty() {
+		return nodes.isEmpty() && links.isEmpty();
+	}
+
+	/**
+	 * Build a delta from all pending changes and reset the coalescer.
+	 *
+	 * @return The coalesced delta
+	 */
+	public synchronized EV_NetworkDelta drain() {
+		var delta = EV_NetworkDelta.newBuilder();
+
+		nodes.forEach((cvid, change) -> {
+			if (change.removed)
+				delta.addNodeRemoved(NodeRemoved.newBuilder().setCvid(cvid));
+			if (change.added)
+				delta.addNodeAdded(NodeAdded.newBuilder().setCvid(cvid));
+		});
+
+		links.forEach((key, change) -> {
+			int cvid1 = (int) (key >> 32);
+			int cvid2 = (int) (long) key;
+
+			for (var type : change.removed)
+				delta.addLinkRemoved(LinkRemoved.newBuilder().setCvid1(cvid1).setCvid2(cvid2).setLink(type));
+			for (var type : change.added)
+				delta.addLinkAdded(LinkAdded.newBuilder().setCvid1(cvid1).setCvid2(cvid2).setLink(type));
+		});
+
+		nodes.clear();
+		links.clear();
+		return delta.build();
+	}
+}
@@ -0,0 +1,42 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.network;
+
+import static com.sandpolis.core.instance.Metatypes.InstanceType.SERVER;
+import static com.sandpolis.core.net.network.NetworkStore.NetworkStore;
+
+import com.sandpolis.core.net.exelet.Exelet;
+import com.sandpolis.core.net.msg.MsgNetwork.EV_NetworkDelta;
+
+/**
+ * Handles messages that describe the topology of the network.
+ *
+ * <p>
+ * This {@link Exelet} is always registered by the
+ * {@link com.sandpolis.core.net.exelet.ExeletStore}.
+ *
+ * @since 7.0.0
+ */
+public final class NetworkExelet extends Exelet {
+
+	/**
+	 * Apply a topology change which a server observed. Only servers broadcast
+	 * deltas, so deltas from other instances are not accepted.
+	 *
+	 * @param delta The topology change
+	 */
+	@Handler(auth = false, instances = SERVER)
+	public static void onNetworkDelta(EV_NetworkDelta delta) {
+		NetworkStore.updateNetwork(delta);
+	}
+
+	private NetworkExelet() {
+	}
+}
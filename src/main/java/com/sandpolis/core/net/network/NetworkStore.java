@@ -11,35 +11,51 @@ package com.sandpolis.core.net.network;
 
 import static com.sandpolis.core.net.connection.ConnectionStore.ConnectionStore;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.eventbus.Subscribe;
+import com.google.common.graph.ImmutableNetwork;
 import com.google.common.graph.MutableNetwork;
 import com.google.common.graph.Network;
 import com.google.common.graph.NetworkBuilder;
 import com.sandpolis.core.foundation.ConfigStruct;
-import com.sandpolis.core.instance.Entrypoint;
 import com.sandpolis.core.instance.Metatypes.InstanceType;
 import com.sandpolis.core.instance.state.ConnectionOid;
 import com.sandpolis.core.instance.state.st.STDocument;
 import com.sandpolis.core.instance.store.ConfigurableStore;
 import com.sandpolis.core.instance.store.STCollectionStore;
 import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.channel.HandlerKey;
 import com.sandpolis.core.net.config.CfgNet;
 import com.sandpolis.core.net.connection.Connection;
 import com.sandpolis.core.net.connection.ConnectionStore;
 import com.sandpolis.core.net.connection.ConnectionStore.SockEstablishedEvent;
 import com.sandpolis.core.net.connection.ConnectionStore.SockLostEvent;
+import com.sandpolis.core.net.connection.RttStats;
+import com.sandpolis.core.net.handler.ResponseHandler;
 import com.sandpolis.core.net.message.MessageFuture;
+import com.sandpolis.core.net.msg.MsgNetwork.EV_NetworkDelta;
+import com.sandpolis.core.net.msg.MsgNetwork.LinkType;
 import com.sandpolis.core.net.network.NetworkStore.NetworkStoreConfig;
 import com.sandpolis.core.net.util.CvidUtil;
+import com.sandpolis.core.net.util.MsgUtil;
+
+import io.netty.util.concurrent.DefaultEventExecutor;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.ImmediateEventExecutor;
 
 /**
  * {@link NetworkStore} manages "logical" connections between any two instances
@@ -49,6 +65,33 @@ import com.sandpolis.core.net.util.CvidUtil;
  * Internally, this class uses a graph to represent connections and is therefore
  * compatible with standard graph algorithms.
  *
+ * <p>
+ * Topology changes are applied to private mutable graphs by a single update
+ * thread and then published as an immutable snapshot. Readers (including
+ * {@link #route(MSG)} and {@link #deliver(MSG)}) only ever see a snapshot and
+ * never take a lock. Each snapshot is published together with a
+ * {@link RoutingTable}, which gives the next hop towards every reachable node,
+ * and the server scores. Changes to this instance's own links are published
+ * immediately with an incrementally updated routing table. Changes learned from
+ * other instances are published at most once per
+ * {@link CfgNet#NETWORK_DELTA_INTERVAL}, so a burst of them costs one copy of
+ * the graph and one routing computation.
+ *
+ * <p>
+ * Links between other instances are learned from {@link EV_NetworkDelta}
+ * events, which {@link NetworkExelet} passes to {@link #updateNetwork}. The
+ * server records its own topology changes and periodically broadcasts them to
+ * its direct neighbors as a single coalesced delta. A new neighbor first
+ * receives a delta that describes the full topology.
+ *
+ * <p>
+ * The preferred server is chosen among directly connected servers by score
+ * (see {@link ServerSelector}). Scores are recomputed on the update thread once
+ * per second and after every published topology change, so reading the
+ * preferred server never computes a score. A server set with
+ * {@link #setPreferredServer(int)} is pinned and takes precedence over the
+ * scores while it's directly connected.
+ *
  * @see ConnectionStore
  * @since 5.0.0
  */
@@ -72,25 +115,110 @@ public final class NetworkStore extends STCollectionStore<Connection> implements
 	public static final record CvidChangedEvent(int cvid) {
 	}
 
+	/**
+	 * Everything that readers need from one published state of the network. The
+	 * components are replaced together so that a reader never combines routes
+	 * from one topology with scores from another.
+	 *
+	 * @param network         An immutable copy of {@link NetworkStore#network}
+	 * @param routes          The next hop towards every node in the network or in
+	 *                        {@link NetworkStore#remote}
+	 * @param serverScores    The most recent score of each directly connected
+	 *                        server
+	 * @param preferredServer The CVID of the preferred server as chosen by score
+	 */
+	private static final record View(ImmutableNetwork<Integer, Connection> network, RoutingTable<Connection> routes,
+			Map<Integer, Double> serverScores, int preferredServer) {
+	}
+
+	/**
+	 * A link between two remote instances. The lower CVID is always first.
+	 */
+	private static final record RemoteLink(int cvid1, int cvid2, LinkType type) {
+
+		static RemoteLink of(int cvid1, int cvid2, LinkType type) {
+			return new RemoteLink(Math.min(cvid1, cvid2), Math.max(cvid1, cvid2), type);
+		}
+	}
+
 	private static final Logger log = LoggerFactory.getLogger(NetworkStore.class);
 
 	public static final NetworkStore NetworkStore = new NetworkStore();
 
+	/**
+	 * The thread which applies topology changes and publishes snapshots. The
+	 * mutable graphs are only accessed from this thread.
+	 */
+	private static final EventExecutor UPDATES = new DefaultEventExecutor(
+			new DefaultThreadFactory("net.network.update", true));
+
 	/**
 	 * The undirected graph which describes the visible connections between nodes on
-	 * the network.
+	 * the network. This graph is only accessed from {@link #UPDATES}.
 	 */
 	private MutableNetwork<Integer, Connection> network;
 
 	/**
-	 * The CVID of the preferred server on the network.
+	 * The graph of links between remote instances as reported by
+	 * {@link EV_NetworkDelta} events. This graph is only accessed from
+	 * {@link #UPDATES}.
+	 */
+	private MutableNetwork<Integer, RemoteLink> remote;
+
+	/**
+	 * Whether a snapshot has been scheduled for publication. Only accessed from
+	 * {@link #UPDATES}.
+	 */
+	private boolean publishScheduled;
+
+	/**
+	 * The time at which the last snapshot was published in nanoseconds. Only
+	 * accessed from {@link #UPDATES}.
+	 */
+	private long publishedAt;
+
+	/**
+	 * Local topology changes that have not been broadcast yet.
+	 */
+	private final DeltaCoalescer pending = new DeltaCoalescer();
+
+	/**
+	 * Whether a broadcast of {@link #pending} has been scheduled.
+	 */
+	private final AtomicBoolean broadcastScheduled = new AtomicBoolean();
+
+	/**
+	 * The most recently published view of the network.
+	 */
+	private volatile View view = new View(
+			ImmutableNetwork.copyOf(NetworkBuilder.undirected().<Integer, Connection>build()), RoutingTable.empty(),
+			Map.of(), 0);
+
+	/**
+	 * The CVID of the preferred server on the network as last chosen by score.
+	 * Only accessed from {@link #UPDATES}.
 	 */
 	private int preferredServer;
 
+	/**
+	 * The CVID of the explicitly chosen preferred server or 0 if there is none.
+	 */
+	private volatile int pinnedServer;
+
+	/**
+	 * The task which periodically recomputes the server scores.
+	 */
+	private ScheduledFuture<?> scoring;
+
+	/**
+	 * The interval between recomputations of the server scores in milliseconds.
+	 */
+	private static final long SCORE_INTERVAL = 1000;
+
 	/**
 	 * The CVID of this instance.
 	 */
-	private int cvid;
+	private volatile int cvid;
 
 	/**
 	 * @return This instance's CVID
@@ -100,16 +228,113 @@ public final class NetworkStore extends STCollectionStore<Connection> implements
 	}
 
 	public void setCvid(int newCvid) {
-		if (cvid != 0) {
-			network.removeNode(cvid);
-		}
-
+		int oldCvid = cvid;
 		cvid = newCvid;
 
-		network.addNode(newCvid);
+		UPDATES.execute(() -> {
+			if (oldCvid != 0 && network.nodes().contains(oldCvid)) {
+				network.removeNode(oldCvid);
+			}
+
+			network.addNode(newCvid);
+			publish();
+		});
 		post(new CvidChangedEvent(newCvid));
 	}
 
+	/**
+	 * Determine whether this instance is a server from its CVID. Servers broadcast
+	 * their topology changes to their neighbors.
+	 *
+	 * @return Whether this instance is a server
+	 */
+	private boolean isServer() {
+		int cvid = cvid();
+		return cvid != 0 && CvidUtil.extractInstance(cvid) == InstanceType.SERVER;
+	}
+
+	/**
+	 * Publish a new snapshot now if the previous one is old enough. Otherwise
+	 * schedule one for the end of the current interval, so that changes which
+	 * arrive in the meantime are coalesced into it. This is only used for changes
+	 * learned from other instances. Must be called from {@link #UPDATES}.
+	 */
+	private void invalidate() {
+		if (publishScheduled)
+			return;
+
+		long delay = publishedAt
+				+ TimeUnit.MILLISECONDS.toNanos(CfgNet.NETWORK_DELTA_INTERVAL.value().orElse(1000))
+				- System.nanoTime();
+
+		if (delay <= 0) {
+			publish();
+		} else {
+			publishScheduled = true;
+			UPDATES.schedule(() -> {
+				publishScheduled = false;
+				publish();
+			}, delay, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Publish a new snapshot of the network and a fully recomputed routing table.
+	 * Must be called from {@link #UPDATES}. Since no other thread touches the
+	 * mutable graphs, no lock is held while they are copied and routes are
+	 * computed.
+	 */
+	private void publish() {
+		var network = ImmutableNetwork.copyOf(this.network);
+
+		publish(network, RoutingTable.compute(network, remote, cvid(), NetworkStore::linkCost,
+				NetworkStore::remoteLinkCost));
+		publishedAt = System.nanoTime();
+	}
+
+	/**
+	 * Publish the given snapshot and routing table with freshly computed server
+	 * scores. Must be called from {@link #UPDATES}.
+	 *
+	 * @param network The snapshot
+	 * @param routes  The routing table that matches the snapshot
+	 */
+	private void publish(ImmutableNetwork<Integer, Connection> network, RoutingTable<Connection> routes) {
+		var scores = score();
+
+		int server = ServerSelector.select(scores, preferredServer);
+		if (server != 0 && server != preferredServer) {
+			log.debug("Selected preferred server: {} (score: {})", server, scores.get(server));
+			preferredServer = server;
+		}
+
+		view = new View(network, routes, scores, preferredServer);
+	}
+
+	/**
+	 * Get the cost of sending a message over the given link.
+	 *
+	 * @param link The link
+	 * @return The link's routing cost in milliseconds
+	 */
+	private static double linkCost(Connection link) {
+		// Assume a typical latency for links that haven't been measured yet
+		return link.getRttStats().map(RttStats::getAverage).filter(rtt -> rtt >= 0)
+				.orElse(ServerSelector.DEFAULT_LATENCY);
+	}
+
+	/**
+	 * Get the cost of sending a message over a link between two remote instances.
+	 * Remote links aren't measured by this instance, so they are assumed to have
+	 * the same latency as an unmeasured local link.
+	 *
+	 * @param link The link
+	 * @return The link's routing cost in the same unit as {@link #linkCost}
+	 */
+	private static double remoteLinkCost(RemoteLink link) {
+		return ServerSelector.DEFAULT_LATENCY;
+	}
+
 	public NetworkStore() {
 		super(log, Connection::new);
 	}
@@ -119,12 +344,14 @@ public final class NetworkStore extends STCollectionStore<Connection> implements
 	 * server.
 	 *
 	 * @param message The message
-	 * @return The next hop
+	 * @return A future which gives the next hop or fails with a
+	 *         {@link NoRouteException} if no server is connected
 	 */
-	public int deliver(MSG message) {
-		int next = getPreferredServer().orElseThrow();
-		ConnectionStore.getByCvid(next).get().send(message);
-		return next;
+	public Future<Integer> deliver(MSG message) {
+		var view = this.view;
+
+		int server = preferredServer(view);
+		return send(message, server != 0 ? view.routes().next(server) : null);
 	}
 
 	/**
@@ -132,20 +359,57 @@ public final class NetworkStore extends STCollectionStore<Connection> implements
 	 * server.
 	 *
 	 * @param message The message
-	 * @return The next hop
+	 * @return A future which gives the next hop or fails with a
+	 *         {@link NoRouteException} if no server is connected
 	 */
-	public int deliver(MSG.Builder message) {
+	public Future<Integer> deliver(MSG.Builder message) {
 		return deliver(message.build());
 	}
 
+	/**
+	 * Send a message over the given hop.
+	 *
+	 * @param message The message
+	 * @param hop     The next hop or {@code null} if there is none
+	 * @return A future which gives the next hop or fails with a
+	 *         {@link NoRouteException} if there is none
+	 */
+	private static Future<Integer> send(MSG message, RoutingTable.Hop<Connection> hop) {
+		if (hop == null)
+			return ImmediateEventExecutor.INSTANCE.newFailedFuture(new NoRouteException(message.getTo()));
+
+		hop.link().send(message);
+		return ImmediateEventExecutor.INSTANCE.newSucceededFuture(hop.cvid());
+	}
+
+	/**
+	 * Get the first step towards the given destination. Messages for destinations
+	 * without a known path are forwarded to the preferred server.
+	 *
+	 * @param cvid The destination CVID
+	 * @return The next hop or {@code null} if there is neither a path nor a
+	 *         preferred server
+	 */
+	private RoutingTable.Hop<Connection> forward(int cvid) {
+		var view = this.view;
+
+		var hop = view.routes().next(cvid);
+		if (hop == null) {
+			int server = preferredServer(view);
+			if (server != 0)
+				hop = view.routes().next(server);
+		}
+		return hop;
+	}
+
 	/**
 	 * Get the CVIDs of every node directly connected to the given CVID.
 	 *
 	 * @param cvid The CVID
 	 * @return A set of all directly connected CVIDs
 	 */
-	public synchronized Set<Integer> getDirect(int cvid) {
-		return network.adjacentNodes(cvid);
+	public Set<Integer> getDirect(int cvid) {
+		return view.network().adjacentNodes(cvid);
 	}
 
 	/**
@@ -154,28 +418,98 @@ public final class NetworkStore extends STCollectionStore<Connection> implements
 	 * @param cvid The CVID
 	 * @return A set of all links involving the CVID
 	 */
-	public synchronized Set<Connection> getDirectLinks(int cvid) {
-		return network.incidentEdges(cvid);
+	public Set<Connection> getDirectLinks(int cvid) {
+		return view.network().incidentEdges(cvid);
 	}
 
 	/**
 	 * Update the network tree with the given delta. If the result of an operation
 	 * is already present in the network (e.g. a node is already present and the
-	 * operation is NodeAdd), then the operation is ignored.
+	 * operation is NodeAdd), then the operation is ignored. Removals are applied
+	 * before additions.
+	 *
+	 * <p>
+	 * Links involving this instance are ignored because its own links are already
+	 * known exactly.
 	 *
 	 * @param delta The delta event that describes the change
 	 */
-//	public synchronized void updateNetwork(EV_NetworkDelta delta) {
-//		for (NodeAdded na : delta.getNodeAddedList())
-//			network.addNode(na.getCvid());
-//		for (NodeRemoved nr : delta.getNodeRemovedList())
-//			network.removeNode(nr.getCvid());
-//
-//		for (LinkAdded la : delta.getLinkAddedList())
-//			network.addEdge(la.getCvid1(), la.getCvid2(), new SockLink(la.getLink()));
-//		for (LinkRemoved lr : delta.getLinkRemovedList())
-//			network.removeEdge(network.edgeConnectingOrNull(lr.getCvid1(), lr.getCvid2()));
-//	}
+	public void updateNetwork(EV_NetworkDelta delta) {
+		UPDATES.execute(() -> {
+			for (var nr : delta.getNodeRemovedList()) {
+				if (remote.nodes().contains(nr.getCvid()))
+					remote.removeNode(nr.getCvid());
+			}
+			for (var lr : delta.getLinkRemovedList()) {
+				// Other types of link between the pair are unaffected
+				remote.removeEdge(RemoteLink.of(lr.getCvid1(), lr.getCvid2(), lr.getLink()));
+			}
+
+			for (var na : delta.getNodeAddedList()) {
+				if (na.getCvid() != cvid())
+					remote.addNode(na.getCvid());
+			}
+			for (var la : delta.getLinkAddedList()) {
+				if (la.getCvid1() != cvid() && la.getCvid2() != cvid()) {
+					var link = RemoteLink.of(la.getCvid1(), la.getCvid2(), la.getLink());
+					remote.addEdge(link.cvid1(), link.cvid2(), link);
+				}
+			}
+
+			invalidate();
+		});
+	}
+
+	/**
+	 * Schedule a broadcast of pending topology changes if one isn't already
+	 * scheduled. Changes that occur before the broadcast runs are coalesced into the
+	 * same delta.
+	 */
+	private void scheduleBroadcast() {
+		if (broadcastScheduled.compareAndSet(false, true)) {
+			UPDATES.schedule(this::broadcast,
+					CfgNet.NETWORK_DELTA_INTERVAL.value().orElse(1000), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Send all pending topology changes to every direct neighbor. Must be called
+	 * from {@link #UPDATES} so that the neighbors are current even if no snapshot
+	 * has been published since the changes.
+	 */
+	private void broadcast() {
+		broadcastScheduled.set(false);
+		if (pending.isEmpty() || !network.nodes().contains(cvid()))
+			return;
+
+		var message = MsgUtil.msg(pending.drain()).build();
+		for (var link : network.incidentEdges(cvid())) {
+			link.send(message);
+		}
+	}
+
+	/**
+	 * Build a delta that adds every known node and link. Must be called from
+	 * {@link #UPDATES}.
+	 *
+	 * @return The full topology as a delta
+	 */
+	private EV_NetworkDelta topology() {
+		var full = new DeltaCoalescer();
+
+		network.nodes().forEach(full::nodeAdded);
+		remote.nodes().forEach(full::nodeAdded);
+
+		for (var link : network.edges()) {
+			var nodes = network.incidentNodes(link);
+			full.linkAdded(nodes.nodeU(), nodes.nodeV(), LinkType.CONTROL_TCP);
+		}
+		for (var link : remote.edges()) {
+			full.linkAdded(link.cvid1(), link.cvid2(), link.type());
+		}
+
+		return full.drain();
+	}
 
 	/**
 	 * Get all links involving both given CVIDs.
@@ -184,34 +518,108 @@ public final class NetworkStore extends STCollectionStore<Connection> implements
 	 * @param cvid2 The second CVID
 	 * @return A set of all links between the two CVIDs
 	 */
-	public synchronized Set<Connection> getDirectLinks(int cvid1, int cvid2) {
-		return network.edgesConnecting(cvid1, cvid2);
+	public Set<Connection> getDirectLinks(int cvid1, int cvid2) {
+		return view.network().edgesConnecting(cvid1, cvid2);
 	}
 
 	/**
 	 * Get an immutable representation of the network.
 	 *
-	 * @return The underlying network graph of the store
+	 * @return The current snapshot of the network graph
 	 */
 	public Network<Integer, Connection> getNetwork() {
-		return network;
+		return view.network();
 	}
 
-	public synchronized Optional<Integer> getPreferredServer() {
+	/**
+	 * Get the preferred server, which is the server that messages without a more
+	 * direct route will be sent through. This is the pinned server if it's
+	 * directly connected and otherwise the best server by score.
+	 *
+	 * @return The preferred server's CVID
+	 */
+	public Optional<Integer> getPreferredServer() {
+		int server = preferredServer(view);
+		return server != 0 ? Optional.of(server) : Optional.empty();
+	}
 
-		if (!network.nodes().contains(preferredServer)) {
-			// Choose a server at random
-			var newServer = network.nodes().stream()
-					.filter(cvid -> CvidUtil.extractInstance(cvid) == InstanceType.SERVER).findAny();
-			if (newServer.isPresent()) {
-				preferredServer = newServer.get();
-				return newServer;
-			} else {
-				return Optional.empty();
+	/**
+	 * Get the preferred server in the given view.
+	 *
+	 * @param view The view
+	 * @return The preferred server's CVID or 0 if no server is connected
+	 */
+	private int preferredServer(View view) {
+		var scores = view.serverScores();
+
+		int server = pinnedServer;
+		if (server != 0 && scores.containsKey(server))
+			return server;
+
+		server = view.preferredServer();
+		if (scores.containsKey(server))
+			return server;
+
+		return 0;
+	}
+
+	/**
+	 * Get the most recent score of each directly connected server. Lower scores are
+	 * better.
+	 *
+	 * @return An unmodifiable map of server CVIDs to scores
+	 */
+	public Map<Integer, Double> getServerScores() {
+		return view.serverScores();
+	}
+
+	/**
+	 * Score every directly connected server and republish the current snapshot
+	 * with the new scores. Must be called from {@link #UPDATES}.
+	 */
+	private void rescore() {
+		var view = this.view;
+		publish(view.network(), view.routes());
+	}
+
+	/**
+	 * Score every directly connected server. Must be called from {@link #UPDATES}.
+	 *
+	 * @return An unmodifiable map of server CVIDs to scores
+	 */
+	private Map<Integer, Double> score() {
+		var scores = new HashMap<Integer, Double>();
+
+		if (network.nodes().contains(cvid())) {
+			for (var link : network.incidentEdges(cvid())) {
+				int node = network.incidentNodes(link).adjacentNode(cvid());
+				if (CvidUtil.extractInstance(node) == InstanceType.SERVER) {
+					// Use the best link if there are several
+					scores.merge(node, score(link), Math::min);
+				}
 			}
 		}
 
-		return Optional.of(preferredServer);
+		return Collections.unmodifiableMap(scores);
+	}
+
+	/**
+	 * Compute the score of a link to a server.
+	 *
+	 * @param link The link
+	 * @return The link's score
+	 */
+	private static double score(Connection link) {
+		var response = link.getHandler(HandlerKey.RESPONSE);
+		var traffic = link.getTrafficHandler().map(handler -> handler.trafficCounter());
+
+		// Fall back to the ping round-trip time if no requests have completed
+		double latency = response.map(ResponseHandler::getResponseLatency).orElse(-1.0);
+		if (latency < 0)
+			latency = link.getRttStats().map(RttStats::getAverage).orElse(-1.0);
+
+		return ServerSelector.score(latency, response.map(ResponseHandler::getResponseCount).orElse(0),
+				traffic.map(counter -> counter.lastReadThroughput() + counter.lastWriteThroughput()).orElse(0L));
 	}
 
 	@Override
@@ -219,66 +627,113 @@ public final class NetworkStore extends STCollectionStore<Connection> implements
 		var config = new NetworkStoreConfig();
 		configurator.accept(config);
 
-		preferredServer = config.preferredServer;
-		network = NetworkBuilder.undirected().allowsSelfLoops(false).allowsParallelEdges(true).build();
-
-		if (config.cvid != 0) {
+		pinnedServer = 0;
+		if (config.cvid != 0)
 			cvid = config.cvid;
-			network.addNode(config.cvid);
-		}
+
+		// Replace the graphs on the update thread so pending changes can't leak in
+		UPDATES.submit(() -> {
+			network = NetworkBuilder.undirected().allowsSelfLoops(false).allowsParallelEdges(true).build();
+			remote = NetworkBuilder.undirected().allowsSelfLoops(false).allowsParallelEdges(true).build();
+			preferredServer = config.preferredServer;
+
+			if (config.cvid != 0)
+				network.addNode(config.cvid);
+			publish();
+
+			if (scoring != null)
+				scoring.cancel(false);
+			scoring = UPDATES.scheduleAtFixedRate(this::rescore, SCORE_INTERVAL, SCORE_INTERVAL,
+					TimeUnit.MILLISECONDS);
+		}).syncUninterruptibly();
 
 		ConnectionStore.register(this);
 		post(new CvidChangedEvent(config.cvid));
 	}
 
 	@Subscribe
-	private synchronized void onSockEstablished(SockEstablishedEvent event) {
+	void onSockEstablished(SockEstablishedEvent event) {
 
 		var remote_cvid = event.connection().get(ConnectionOid.REMOTE_CVID).asInt();
 
-		// Add node if not already present
-		if (!network.nodes().contains(remote_cvid)) {
-			log.debug("Adding node: {} ({})", remote_cvid, CvidUtil.extractInstance(remote_cvid));
-			network.addNode(remote_cvid);
-		}
+		boolean server = isServer();
 
-		// Add edge representing the new connection
-		network.addEdge(cvid(), remote_cvid, event.connection());
+		UPDATES.execute(() -> {
+			// Add node if not already present
+			if (!network.nodes().contains(remote_cvid)) {
+				log.debug("Adding node: {} ({})", remote_cvid, CvidUtil.extractInstance(remote_cvid));
+				network.addNode(remote_cvid);
 
-		if (Entrypoint.data().instance() != InstanceType.SERVER) {
-			// See if that was the first connection to a server
-			if (event.connection().get(ConnectionOid.REMOTE_INSTANCE).asInstanceType() == InstanceType.SERVER) {
-				// TODO
-				postAsync(new ServerEstablishedEvent(remote_cvid));
+				if (server)
+					pending.nodeAdded(remote_cvid);
 			}
-		}
+
+			// Add edge representing the new connection and route over it immediately
+			network.addEdge(cvid(), remote_cvid, event.connection());
+			publish(ImmutableNetwork.copyOf(network), view.routes().withLink(network, remote, cvid(),
+					event.connection(), NetworkStore::linkCost, NetworkStore::remoteLinkCost));
+
+			if (server) {
+				// The neighbor only receives changes from now on, so it needs everything that
+				// is already known first
+				event.connection().send(MsgUtil.msg(topology()));
+
+				pending.linkAdded(cvid(), remote_cvid, LinkType.CONTROL_TCP);
+				scheduleBroadcast();
+			} else {
+				// See if that was the first connection to a server
+				if (CvidUtil.extractInstance(remote_cvid) == InstanceType.SERVER) {
+					// TODO
+					postAsync(new ServerEstablishedEvent(remote_cvid));
+				}
+			}
+		});
 	}
 
 	@Subscribe
-	private synchronized void onSockLost(SockLostEvent event) {
-		if (network.nodes().contains(cvid())
-				&& network.nodes().contains(event.connection().get(ConnectionOid.REMOTE_CVID).asInt()))
-			network.edgeConnecting(cvid(), event.connection().get(ConnectionOid.REMOTE_CVID).asInt())
-					.ifPresent(network::removeEdge);
-
-		// Remove nodes that are now disconnected
-		network.nodes().stream().filter(cvid -> cvid() != cvid).filter(cvid -> network.degree(cvid) == 0)
-				.collect(Collectors.toUnmodifiableList()).forEach(network::removeNode);
-
-		if (Entrypoint.data().instance() != InstanceType.SERVER) {
-			// Check whether a server is still reachable after losing the connection
-			for (var node : network.nodes()) {
-				if (CvidUtil.extractInstance(node) == InstanceType.SERVER) {
-					if (network.edgesConnecting(node, event.connection().get(ConnectionOid.REMOTE_CVID).asInt())
-							.size() > 0) {
-						return;
-					}
+	void onSockLost(SockLostEvent event) {
+		var remote_cvid = event.connection().get(ConnectionOid.REMOTE_CVID).asInt();
+
+		boolean server = isServer();
+
+		UPDATES.execute(() -> {
+			boolean removed = false;
+			if (network.nodes().contains(cvid()) && network.nodes().contains(remote_cvid)) {
+				if (network.edgesConnecting(cvid(), remote_cvid).contains(event.connection())) {
+					network.removeEdge(event.connection());
+					removed = true;
+
+					// Receivers only know one link of each type between a pair, so it remains
+					// while any parallel connection does
+					if (server && network.edgesConnecting(cvid(), remote_cvid).isEmpty())
+						pending.linkRemoved(cvid(), remote_cvid, LinkType.CONTROL_TCP);
 				}
 			}
 
-			// No servers are reachable
-			postAsync(new ServerLostEvent(event.connection().get(ConnectionOid.REMOTE_CVID).asInt()));
-		}
+			// Every local link involves this instance, so only the remote node can have
+			// become disconnected
+			if (remote_cvid != cvid() && network.nodes().contains(remote_cvid)
+					&& network.degree(remote_cvid) == 0) {
+				network.removeNode(remote_cvid);
+
+				if (server)
+					pending.nodeRemoved(remote_cvid);
+			}
+
+			// Stop routing over the lost connection immediately
+			if (removed) {
+				publish(ImmutableNetwork.copyOf(network), view.routes().withoutLink(network, remote, cvid(),
+						event.connection(), NetworkStore::linkCost, NetworkStore::remoteLinkCost));
+			}
+
+			if (server) {
+				scheduleBroadcast();
+			} else if (!network.nodes().contains(cvid()) || network.adjacentNodes(cvid()).stream()
+					.noneMatch(node -> CvidUtil.extractInstance(node) == InstanceType.SERVER)) {
+				// No servers are reachable
+				postAsync(new ServerLostEvent(remote_cvid));
+			}
+		});
 	}
 
 	/**
@@ -314,27 +769,34 @@ public final class NetworkStore extends STCollectionStore<Connection> implements
 	}
 
 	/**
-	 * Transmit a message into the network, taking the most direct path.
+	 * Get the first step on the cheapest known path to the given instance.
+	 *
+	 * @param cvid The destination CVID
+	 * @return The next hop or {@code null} if the destination is unreachable
+	 */
+	public RoutingTable.Hop<Connection> nextHop(int cvid) {
+		return view.routes().next(cvid);
+	}
+
+	/**
+	 * Transmit a message into the network, taking the cheapest known path.
 	 *
 	 * @param message The message
-	 * @return The next hop
+	 * @return A future which gives the next hop or fails with a
+	 *         {@link NoRouteException} if the destination is unreachable
 	 */
-	public synchronized int route(MSG message) {
-		if (network.adjacentNodes(cvid()).contains(message.getTo())) {
-			ConnectionStore.getByCvid(message.getTo()).get().send(message);
-			return message.getTo();
-		} else {
-			return deliver(message);
-		}
+	public Future<Integer> route(MSG message) {
+		return send(message, forward(message.getTo()));
 	}
 
 	/**
 	 * Transmit a message into the network, taking the most direct path.
 	 *
 	 * @param message The message
-	 * @return The next hop
+	 * @return A future which gives the next hop or fails with a
+	 *         {@link NoRouteException} if the destination is unreachable
 	 */
-	public int route(MSG.Builder message) {
+	public Future<Integer> route(MSG.Builder message) {
 		return route(message.build());
 	}
 
@@ -347,33 +809,33 @@ public final class NetworkStore extends STCollectionStore<Connection> implements
 	 *
 	 * @param message      The message
 	 * @param timeoutClass The message timeout class
-	 * @return The next hop
+	 * @return A future for the response which fails with a
+	 *         {@link NoRouteException} if the destination is unreachable
 	 */
 	public MessageFuture route(MSG.Builder message, String timeoutClass) {
-		int next;
 		// TODO use timeout class
 
-		// Search adjacent nodes first
-		if (network.adjacentNodes(cvid()).contains(message.getTo())) {
-			next = message.getTo();
-		}
-
-		// Try preferred server
-		else {
-			next = getPreferredServer().orElseThrow();
+		var hop = forward(message.getTo());
+		if (hop == null) {
+			var mf = new MessageFuture();
+			mf.setFailure(new NoRouteException(message.getTo()));
+			return mf;
 		}
 
-		MessageFuture mf = receive(next, message.getId(), CfgNet.MESSAGE_TIMEOUT.value().get(), TimeUnit.MILLISECONDS);
-		ConnectionStore.getByCvid(next).get().send(message);
+		MessageFuture mf = hop.link().read(message.getId(), CfgNet.MESSAGE_TIMEOUT.value().get(),
+				TimeUnit.MILLISECONDS);
+		hop.link().send(message);
 		return mf;
 	}
 
 	/**
-	 * Explicitly set the preferred server CVID.
+	 * Pin the preferred server. The pinned server is used whenever it's directly
+	 * connected, regardless of its score. While it's not connected, the best
+	 * server by score is used instead.
 	 *
-	 * @param cvid The new preferred server
+	 * @param cvid The new preferred server or 0 to let scores decide
 	 */
 	public void setPreferredServer(int cvid) {
-		preferredServer = cvid;
+		pinnedServer = cvid;
 	}
 }
@@ -0,0 +1,27 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.network;
+
+import java.io.IOException;
+
+/**
+ * The failure cause of a message that could not be sent because no path to its
+ * destination is known and no server is available to forward it.
+ *
+ * @since 7.0.0
+ */
+public class NoRouteException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	public NoRouteException(int cvid) {
+		super("No route to instance: " + cvid);
+	}
+}
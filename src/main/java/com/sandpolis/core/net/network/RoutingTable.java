@@ -0,0 +1,282 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.network;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+
+import com.google.common.graph.Network;
+
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
+
+/**
+ * An immutable table that maps every reachable CVID to the next hop on the
+ * cheapest path from a source node.
+ *
+ * <p>
+ * The table is computed with Dijkstra's algorithm over a snapshot of the
+ * network. Lookups are a single primitive map probe, so the table is meant to
+ * be rebuilt when the topology changes rather than searched per message. When
+ * only one of the source's own links changes, {@link #withLink} and
+ * {@link #withoutLink} derive a new table by searching from the destinations
+ * that the change affects.
+ *
+ * @param <E> The link type
+ * @since 7.0.0
+ */
+public final class RoutingTable<E> {
+
+	/**
+	 * The first step on the path towards a destination.
+	 *
+	 * @param cvid The CVID of the adjacent node
+	 * @param link The link to the adjacent node
+	 */
+	public static record Hop<E>(int cvid, E link) {
+	}
+
+	private static record Path<E>(int node, double cost, Hop<E> hop) {
+	}
+
+	private static record Route<E>(Hop<E> hop, double cost) {
+	}
+
+	/**
+	 * Compute a routing table.
+	 *
+	 * @param <E>     The link type
+	 * @param network The network
+	 * @param source  The CVID of the node that will use the table
+	 * @param cost    The cost of traversing a link
+	 * @return A new routing table
+	 */
+	public static <E> RoutingTable<E> compute(Network<Integer, E> network, int source, ToDoubleFunction<E> cost) {
+		return compute(network, null, source, cost, link -> 0);
+	}
+
+	/**
+	 * Compute a routing table over the source's own links and the links between
+	 * remote nodes. Only the source's own links can be a first hop. Both cost
+	 * functions must use the same unit so that local and remote links can be
+	 * compared.
+	 *
+	 * @param <E>        The link type
+	 * @param <R>        The remote link type
+	 * @param local      The network of links that can be a first hop
+	 * @param remote     The network of links between remote nodes or {@code null}
+	 * @param source     The CVID of the node that will use the table
+	 * @param cost       The cost of traversing a local link
+	 * @param remoteCost The cost of traversing a remote link
+	 * @return A new routing table
+	 */
+	public static <E, R> RoutingTable<E> compute(Network<Integer, E> local, Network<Integer, R> remote, int source,
+			ToDoubleFunction<E> cost, ToDoubleFunction<? super R> remoteCost) {
+		IntObjectMap<Route<E>> routes = new IntObjectHashMap<>();
+		if (!local.nodes().contains(source))
+			return new RoutingTable<>(routes);
+
+		var queue = new PriorityQueue<Path<E>>(Comparator.comparingDouble(Path::cost));
+
+		// Every path begins with one of the source's own links
+		for (var link : local.incidentEdges(source)) {
+			int neighbor = local.incidentNodes(link).adjacentNode(source);
+			queue.add(new Path<>(neighbor, cost.applyAsDouble(link), new Hop<>(neighbor, link)));
+		}
+
+		search(local, remote, source, cost, remoteCost, routes, queue);
+		return new RoutingTable<>(routes);
+	}
+
+	/**
+	 * Derive the routing table that results from adding one of the source's own
+	 * links. Only the destinations that the new link brings closer are visited.
+	 * The arguments must be the same as those the table was computed with, except
+	 * that the local network now contains the link.
+	 *
+	 * @param <R>        The remote link type
+	 * @param local      The network of links that can be a first hop
+	 * @param remote     The network of links between remote nodes or {@code null}
+	 * @param source     The CVID of the node that will use the table
+	 * @param link       The new link
+	 * @param cost       The cost of traversing a local link
+	 * @param remoteCost The cost of traversing a remote link
+	 * @return A new routing table or this table if no route changed
+	 */
+	public <R> RoutingTable<E> withLink(Network<Integer, E> local, Network<Integer, R> remote, int source, E link,
+			ToDoubleFunction<E> cost, ToDoubleFunction<? super R> remoteCost) {
+		int neighbor = local.incidentNodes(link).adjacentNode(source);
+		var path = new Path<>(neighbor, cost.applyAsDouble(link), new Hop<>(neighbor, link));
+
+		// Every path over the new link passes through the neighbor first
+		var current = this.routes.get(neighbor);
+		if (current != null && current.cost() <= path.cost())
+			return this;
+
+		IntObjectMap<Route<E>> routes = new IntObjectHashMap<>(this.routes.size() + 1);
+		routes.putAll(this.routes);
+
+		var queue = new PriorityQueue<Path<E>>(Comparator.comparingDouble(Path::cost));
+		queue.add(path);
+
+		search(local, remote, source, cost, remoteCost, routes, queue);
+		return new RoutingTable<>(routes);
+	}
+
+	/**
+	 * Derive the routing table that results from removing one of the source's own
+	 * links. Only the destinations that were routed over the link are searched
+	 * again. The arguments must be the same as those the table was computed with,
+	 * except that the local network no longer contains the link.
+	 *
+	 * @param <R>        The remote link type
+	 * @param local      The network of links that can be a first hop
+	 * @param remote     The network of links between remote nodes or {@code null}
+	 * @param source     The CVID of the node that will use the table
+	 * @param link       The removed link
+	 * @param cost       The cost of traversing a local link
+	 * @param remoteCost The cost of traversing a remote link
+	 * @return A new routing table or this table if no route changed
+	 */
+	public <R> RoutingTable<E> withoutLink(Network<Integer, E> local, Network<Integer, R> remote, int source, E link,
+			ToDoubleFunction<E> cost, ToDoubleFunction<? super R> remoteCost) {
+		IntObjectMap<Route<E>> routes = new IntObjectHashMap<>(this.routes.size());
+		List<Integer> lost = new ArrayList<>();
+
+		for (var entry : this.routes.entries()) {
+			if (entry.value().hop().link() == link)
+				lost.add(entry.key());
+			else
+				routes.put(entry.key(), entry.value());
+		}
+
+		if (lost.isEmpty())
+			return this;
+		if (!local.nodes().contains(source))
+			return empty();
+
+		// A local link is only ever the first step of a path, so the remaining routes
+		// are still the cheapest. The lost destinations must be reached through them or
+		// through another of the source's own links.
+		var queue = new PriorityQueue<Path<E>>(Comparator.comparingDouble(Path::cost));
+		for (int node : lost) {
+			if (local.nodes().contains(node)) {
+				for (var direct : local.edgesConnecting(source, node))
+					queue.add(new Path<>(node, cost.applyAsDouble(direct), new Hop<>(node, direct)));
+			}
+
+			reenter(local, cost, node, source, routes, queue);
+			if (remote != null)
+				reenter(remote, remoteCost, node, source, routes, queue);
+		}
+
+		search(local, remote, source, cost, remoteCost, routes, queue);
+		return new RoutingTable<>(routes);
+	}
+
+	/**
+	 * Settle every path in the queue and extend it until no cheaper path remains.
+	 */
+	private static <E, R> void search(Network<Integer, E> local, Network<Integer, R> remote, int source,
+			ToDoubleFunction<E> cost, ToDoubleFunction<? super R> remoteCost, IntObjectMap<Route<E>> routes,
+			PriorityQueue<Path<E>> queue) {
+		while (!queue.isEmpty()) {
+			var path = queue.poll();
+
+			// Skip stale entries for nodes that already have a path at least as cheap
+			var route = routes.get(path.node());
+			if (route != null && route.cost() <= path.cost())
+				continue;
+
+			routes.put(path.node(), new Route<>(path.hop(), path.cost()));
+
+			expand(local, cost, path, source, routes, queue);
+			if (remote != null)
+				expand(remote, remoteCost, path, source, routes, queue);
+		}
+	}
+
+	/**
+	 * Extend a path over every link of its last node.
+	 */
+	private static <E, L> void expand(Network<Integer, L> network, ToDoubleFunction<? super L> cost, Path<E> path,
+			int source, IntObjectMap<Route<E>> routes, PriorityQueue<Path<E>> queue) {
+		if (!network.nodes().contains(path.node()))
+			return;
+
+		for (var link : network.incidentEdges(path.node())) {
+			int next = network.incidentNodes(link).adjacentNode(path.node());
+			if (next == source)
+				continue;
+
+			double total = path.cost() + cost.applyAsDouble(link);
+			var route = routes.get(next);
+			if (route == null || total < route.cost())
+				queue.add(new Path<>(next, total, path.hop()));
+		}
+	}
+
+	/**
+	 * Offer paths to the given node over every link from a node that still has a
+	 * route.
+	 */
+	private static <E, L> void reenter(Network<Integer, L> network, ToDoubleFunction<? super L> cost, int node,
+			int source, IntObjectMap<Route<E>> routes, PriorityQueue<Path<E>> queue) {
+		if (!network.nodes().contains(node))
+			return;
+
+		for (var link : network.incidentEdges(node)) {
+			int previous = network.incidentNodes(link).adjacentNode(node);
+			if (previous == source)
+				continue;
+
+			var route = routes.get(previous);
+			if (route != null)
+				queue.add(new Path<>(node, route.cost() + cost.applyAsDouble(link), route.hop()));
+		}
+	}
+
+	/**
+	 * Build an empty routing table.
+	 *
+	 * @param <E> The link type
+	 * @return A routing table without any routes
+	 */
+	public static <E> RoutingTable<E> empty() {
+		return new RoutingTable<>(new IntObjectHashMap<>());
+	}
+
+	private final IntObjectMap<Route<E>> routes;
+
+	private RoutingTable(IntObjectMap<Route<E>> routes) {
+		this.routes = routes;
+	}
+
+	/**
+	 * Get the next hop towards the given destination.
+	 *
+	 * @param destination The destination CVID
+	 * @return The next hop or {@code null} if the destination is unreachable
+	 */
+	public Hop<E> next(int destination) {
+		var route = routes.get(destination);
+		return route != null ? route.hop() : null;
+	}
+
+	/**
+	 * @return The number of reachable destinations
+	 */
+	public int size() {
+		return routes.size();
+	}
+}
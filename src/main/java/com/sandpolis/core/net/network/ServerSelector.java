@@ -0,0 +1,100 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.network;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Scores server links and chooses a preferred server.
+ *
+ * <p>
+ * A score estimates how long a request to the server would take, so lower is
+ * better. Instances pick randomly among all servers that score close to the
+ * best so that a cluster of equivalent servers shares the load. Once chosen, a
+ * server is kept until it scores significantly worse than the best (hysteresis)
+ * so that instances don't oscillate between servers with similar scores.
+ *
+ * @since 7.0.0
+ */
+final class ServerSelector {
+
+	/**
+	 * The latency in milliseconds assumed for a server that hasn't responded to
+	 * any requests yet.
+	 */
+	static final double DEFAULT_LATENCY = 100;
+
+	/**
+	 * The relative score difference within which servers are considered
+	 * equivalent.
+	 */
+	static final double TOLERANCE = 0.25;
+
+	/**
+	 * The relative score difference at which the current server is abandoned for a
+	 * better one.
+	 */
+	static final double FAILOVER = 1.0;
+
+	/**
+	 * The number of outstanding requests which doubles a server's score.
+	 */
+	static final double OUTSTANDING_WEIGHT = 16;
+
+	/**
+	 * The combined throughput in bytes per second which doubles a server's score.
+	 */
+	static final double THROUGHPUT_WEIGHT = 1 << 20;
+
+	/**
+	 * Compute the score of a server link.
+	 *
+	 * @param latency     The average response latency in milliseconds or a
+	 *                    negative value if unknown
+	 * @param outstanding The number of requests waiting for a response
+	 * @param throughput  The combined read and write throughput in bytes per
+	 *                    second
+	 * @return The link's score
+	 */
+	static double score(double latency, int outstanding, long throughput) {
+		if (latency < 0)
+			latency = DEFAULT_LATENCY;
+
+		return latency * (1 + outstanding / OUTSTANDING_WEIGHT) * (1 + Math.max(0, throughput) / THROUGHPUT_WEIGHT);
+	}
+
+	/**
+	 * Choose a preferred server.
+	 *
+	 * @param scores  The score of each reachable server
+	 * @param current The current preferred server
+	 * @return The new preferred server or 0 if there are no servers
+	 */
+	static int select(Map<Integer, Double> scores, int current) {
+		if (scores.isEmpty())
+			return 0;
+
+		double best = scores.values().stream().mapToDouble(Double::doubleValue).min().getAsDouble();
+
+		// Keep the current server unless it has degraded
+		var score = scores.get(current);
+		if (score != null && score <= best * (1 + FAILOVER))
+			return current;
+
+		var candidates = scores.entrySet().stream().filter(entry -> entry.getValue() <= best * (1 + TOLERANCE))
+				.mapToInt(Map.Entry::getKey).toArray();
+
+		return candidates[ThreadLocalRandom.current().nextInt(candidates.length)];
+	}
+
+	private ServerSelector() {
+	}
+}
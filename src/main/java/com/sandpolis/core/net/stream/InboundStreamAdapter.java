@@ -11,48 +11,172 @@ package com.sandpolis.core.net.stream;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.protobuf.MessageLite;
 import com.sandpolis.core.net.Message.MSG;
-import com.sandpolis.core.net.channel.HandlerKey;
+import com.sandpolis.core.net.config.CfgNet;
 import com.sandpolis.core.net.connection.Connection;
+import com.sandpolis.core.net.msg.MsgStream.EV_StreamCredit;
 import com.sandpolis.core.net.util.MsgUtil;
 
-import io.netty.channel.ChannelHandlerContext;
-import io.netty.channel.ChannelInboundHandler;
-
-public class InboundStreamAdapter<E extends MessageLite> extends SubmissionPublisher<E>
-		implements StreamEndpoint, ChannelInboundHandler {
+/**
+ * An {@link InboundStreamAdapter} receives the events of a stream from the
+ * network and publishes them to local subscribers.
+ *
+ * <p>
+ * Events are handed to subscribers without blocking the channel's event loop.
+ * If the remote instance announced during the CVID handshake that it waits for
+ * credit (see {@link EV_StreamCredit}), the adapter grants more once every
+ * subscriber has consumed half of the stream window, so a slow subscriber holds
+ * back the sender rather than the event loop. Otherwise the sender is
+ * unbounded, and reading from the channel is paused while a subscriber falls
+ * behind.
+ */
+public class InboundStreamAdapter<E extends MessageLite> extends SubmissionPublisher<E> implements StreamEndpoint {
 
 	private static final Logger log = LoggerFactory.getLogger(InboundStreamAdapter.class);
 
+	/**
+	 * Counts the events that a subscriber has finished consuming.
+	 */
+	private final class Tracked implements Subscriber<E> {
+
+		private final Subscriber<? super E> subscriber;
+
+		/**
+		 * The number of events published before the subscriber will receive no more of
+		 * them, whether it consumed them or they were dropped.
+		 */
+		final AtomicLong consumed;
+
+		Tracked(Subscriber<? super E> subscriber, long published) {
+			this.subscriber = subscriber;
+			this.consumed = new AtomicLong(published);
+		}
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			subscriber.onSubscribe(new Subscription() {
+
+				@Override
+				public void request(long n) {
+					subscription.request(n);
+				}
+
+				@Override
+				public void cancel() {
+					subscription.cancel();
+					remove(Tracked.this);
+				}
+			});
+		}
+
+		@Override
+		public void onNext(E item) {
+			subscriber.onNext(item);
+			consumed.incrementAndGet();
+			release();
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			remove(this);
+			subscriber.onError(throwable);
+		}
+
+		@Override
+		public void onComplete() {
+			remove(this);
+			subscriber.onComplete();
+		}
+	}
+
 	private int id;
 	private Connection sock;
+	private StreamDemuxHandler demux;
 	private Class<E> eventType;
+	private int payloadType;
+
+	/**
+	 * Whether the sender waits for credit.
+	 */
+	private final boolean credit;
+
+	/**
+	 * The number of consumed events that are returned to the sender at once.
+	 */
+	private final int threshold;
+
+	/**
+	 * The current subscribers.
+	 */
+	private final List<Tracked> consumers = new CopyOnWriteArrayList<>();
+
+	/**
+	 * The number of events that have been published. Guarded by this adapter.
+	 */
+	private long published;
+
+	/**
+	 * The number of consumed events that have been returned to the sender as
+	 * credit. Guarded by this adapter.
+	 */
+	private long granted;
 
 	public InboundStreamAdapter(int streamID, Connection sock, Class<E> eventType) {
+		// A subscriber's buffer holds a full window, so no event is dropped while the
+		// sender respects its credit
+		super(ForkJoinPool.commonPool(),
+				Math.max(Flow.defaultBufferSize(), CfgNet.STREAM_WINDOW.value().orElse(64)));
+
 		this.id = streamID;
 		this.sock = checkNotNull(sock);
+		this.demux = StreamDemuxHandler.of(sock);
 		this.eventType = eventType;
+		this.payloadType = MsgUtil.getPayloadType(eventType);
+		this.credit = demux.isCreditEnabled();
+		this.threshold = Math.max(1, CfgNet.STREAM_WINDOW.value().orElse(64) / 2);
 
 		log.debug("Engaging stream: {}", id);
-		sock.engage(HandlerKey.STREAM, this);
+		demux.register(this);
 	}
 
 	public Connection getSock() {
 		return sock;
 	}
 
+	@Override
+	public void subscribe(Subscriber<? super E> subscriber) {
+		Tracked consumer;
+		synchronized (this) {
+			consumer = new Tracked(subscriber, published);
+			consumers.add(consumer);
+		}
+		super.subscribe(consumer);
+	}
+
+	@Override
+	public boolean isSubscribed(Subscriber<? super E> subscriber) {
+		return consumers.stream().anyMatch(consumer -> consumer.subscriber.equals(subscriber));
+	}
+
 	@Override
 	public void close() {
 		super.close();
 
 		log.debug("Disengaging stream: {}", id);
-		sock.disengage(this);
+		demux.unregister(this);
 	}
 
 	@Override
@@ -60,7 +184,7 @@ public class InboundStreamAdapter<E extends MessageLite> extends SubmissionPubli
 		super.closeExceptionally(error);
 
 		log.debug("Disengaging stream: {}", id);
-		sock.disengage(this);
+		demux.unregister(this);
 	}
 
 	@Override
@@ -68,64 +192,60 @@ public class InboundStreamAdapter<E extends MessageLite> extends SubmissionPubli
 		return id;
 	}
 
-	@Override
-	public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
-		// NO OP
-	}
+	/**
+	 * Publish a message that was routed to this stream.
+	 *
+	 * @param m The message
+	 * @return Whether the message belonged to this stream
+	 */
+	boolean accept(MSG m) {
+		if (m.getPayloadType() != payloadType)
+			return false;
 
-	@Override
-	public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
-		// NO OP
-	}
-
-	@Override
-	public void channelRegistered(ChannelHandlerContext ctx) throws Exception {
-		ctx.fireChannelRegistered();
-	}
-
-	@Override
-	public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
-		ctx.fireChannelUnregistered();
-	}
-
-	@Override
-	public void channelActive(ChannelHandlerContext ctx) throws Exception {
-		ctx.fireChannelActive();
-	}
-
-	@Override
-	public void channelInactive(ChannelHandlerContext ctx) throws Exception {
-		ctx.fireChannelInactive();
-		close();
-	}
+		synchronized (this) {
+			published++;
+		}
 
-	@Override
-	public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-		MSG m = (MSG) msg;
-		if (m.getId() == id) {
-			submit(MsgUtil.unpack(m, eventType));
+		offer(MsgUtil.unpack(m, eventType), (subscriber, event) -> {
+			log.warn("Dropped event on stream: {}", id);
+			((Tracked) subscriber).consumed.incrementAndGet();
+			return false;
+		});
+
+		release();
+		return true;
+	}
+
+	/**
+	 * Stop tracking a subscriber that will receive no more events.
+	 */
+	private void remove(Tracked consumer) {
+		consumers.remove(consumer);
+		release();
+	}
+
+	/**
+	 * Return the events that every subscriber has consumed to the sender, or pause
+	 * reading while a subscriber falls behind if the sender doesn't wait for
+	 * credit.
+	 */
+	private synchronized void release() {
+		long done = published;
+		for (var consumer : consumers)
+			done = Math.min(done, consumer.consumed.get());
+
+		if (credit) {
+			if (done - granted >= threshold) {
+				sock.send(MsgUtil.ev(id, EV_StreamCredit.newBuilder().setCredits((int) (done - granted))));
+				granted = done;
+			}
 		} else {
-			ctx.fireChannelRead(msg);
+			// Leave room for the events that were already read from the channel
+			long lag = published - done;
+			if (lag >= getMaxBufferCapacity() / 2)
+				demux.pause(this);
+			else if (lag <= getMaxBufferCapacity() / 4)
+				demux.resume(this);
 		}
 	}
-
-	@Override
-	public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
-		ctx.fireChannelReadComplete();
-	}
-
-	@Override
-	public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
-		ctx.fireUserEventTriggered(evt);
-	}
-
-	@Override
-	public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
-		ctx.fireChannelWritabilityChanged();
-	}
-
-	@Override
-	public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
-		ctx.fireExceptionCaught(cause);
-	}
 }
@@ -15,26 +15,59 @@ import static com.sandpolis.core.net.stream.StreamStore.StreamStore;
 import java.util.concurrent.Flow.Subscriber;
 import java.util.concurrent.Flow.Subscription;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.google.protobuf.MessageLiteOrBuilder;
+import com.sandpolis.core.net.config.CfgNet;
 import com.sandpolis.core.net.connection.Connection;
+import com.sandpolis.core.net.msg.MsgStream.EV_StreamCredit;
 import com.sandpolis.core.net.util.MsgUtil;
 
+/**
+ * An {@link OutboundStreamAdapter} sends the events of a stream into the
+ * network.
+ *
+ * <p>
+ * Events are only requested from upstream while the receiver has granted
+ * credit (see {@link EV_StreamCredit}) and the channel is writable. The number
+ * of events in flight is therefore bounded by the stream window no matter how
+ * fast the upstream publisher is. If the receiver didn't announce support for
+ * credit during the CVID handshake, events are requested without limit.
+ */
 public class OutboundStreamAdapter<E extends MessageLiteOrBuilder> implements Subscriber<E>, StreamEndpoint {
 
+	private static final Logger log = LoggerFactory.getLogger(OutboundStreamAdapter.class);
+
 	private int cvid;
 	private int id;
 	private Connection sock;
+	private StreamDemuxHandler demux;
 	private Subscription subscription;
 
+	/**
+	 * The number of events the receiver is currently willing to accept.
+	 */
+	private long credits;
+
+	/**
+	 * The number of events requested from upstream that haven't arrived yet.
+	 */
+	private long requested;
+
 	public OutboundStreamAdapter(int streamID, Connection sock) {
-		this.id = streamID;
-		this.sock = checkNotNull(sock);
+		this(streamID, sock, 0);
 	}
 
 	public OutboundStreamAdapter(int streamID, Connection sock, int cvid) {
 		this.id = streamID;
 		this.sock = checkNotNull(sock);
 		this.cvid = cvid;
+		this.demux = StreamDemuxHandler.of(sock);
+		this.credits = demux.isCreditEnabled() ? CfgNet.STREAM_WINDOW.value().orElse(64) : Long.MAX_VALUE;
+
+		log.debug("Engaging stream: {}", id);
+		demux.register(this);
 	}
 
 	public Connection getSock() {
@@ -59,16 +92,68 @@ public class OutboundStreamAdapter<E extends MessageLiteOrBuilder> implements Su
 
 	@Override
 	public void onNext(E item) {
+		synchronized (this) {
+			credits--;
+			requested--;
+		}
+
 		sock.send(MsgUtil.ev(id, item));
 	}
 
 	@Override
 	public void onSubscribe(Subscription subscription) {
-		this.subscription = subscription;
-		this.subscription.request(Long.MAX_VALUE);
+		synchronized (this) {
+			this.subscription = subscription;
+		}
+		demand();
+	}
+
+	/**
+	 * Allow the adapter to send more events.
+	 *
+	 * @param credits The number of additional events the receiver will accept
+	 */
+	public void grant(int credits) {
+		synchronized (this) {
+			this.credits += credits;
+		}
+		demand();
+	}
+
+	/**
+	 * Request as many events from upstream as the receiver and the channel can
+	 * currently accept.
+	 */
+	void demand() {
+		Subscription subscription;
+		long n;
+
+		synchronized (this) {
+			if (this.subscription == null || !sock.channel().isWritable())
+				return;
+
+			n = credits - requested;
+			if (n <= 0)
+				return;
+
+			requested += n;
+			subscription = this.subscription;
+		}
+
+		subscription.request(n);
 	}
 
 	public void close() {
+		Subscription subscription;
+		synchronized (this) {
+			subscription = this.subscription;
+			this.subscription = null;
+		}
+
+		if (subscription != null)
+			subscription.cancel();
 
+		log.debug("Disengaging stream: {}", id);
+		demux.unregister(this);
 	}
 }
@@ -0,0 +1,216 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.stream;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.connection.Connection;
+import com.sandpolis.core.net.msg.MsgStream.EV_StreamCredit;
+import com.sandpolis.core.net.util.MsgUtil;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
+
+/**
+ * {@link StreamDemuxHandler} routes stream messages to the stream adapters of a
+ * single connection.
+ *
+ * <p>
+ * Each connection has exactly one of these handlers no matter how many streams
+ * are open, so a stream message is routed with a single table lookup and
+ * opening or closing a stream never modifies the pipeline.
+ *
+ * <p>
+ * The stream tables are copy-on-write: adapters are registered and unregistered
+ * rarely while lookups happen for every message on the channel.
+ *
+ * <p>
+ * Stream credit (see {@link EV_StreamCredit}) is only used once both instances
+ * have announced support for it during the CVID handshake. Older instances
+ * neither send nor expect credit.
+ *
+ * @since 7.0.0
+ */
+public final class StreamDemuxHandler extends ChannelInboundHandlerAdapter {
+
+	private static final int STREAM_CREDIT = MsgUtil.getPayloadType(EV_StreamCredit.class);
+
+	/**
+	 * Adapters that receive stream events keyed by stream ID.
+	 */
+	private volatile IntObjectMap<InboundStreamAdapter<?>> inbound = new IntObjectHashMap<>();
+
+	/**
+	 * Adapters that send stream events keyed by stream ID.
+	 */
+	private volatile IntObjectMap<OutboundStreamAdapter<?>> outbound = new IntObjectHashMap<>();
+
+	/**
+	 * Whether the remote instance sends and respects stream credit.
+	 */
+	private volatile boolean credit;
+
+	/**
+	 * Inbound adapters whose subscribers have fallen behind a sender that doesn't
+	 * wait for credit. Reading from the channel is paused while this isn't empty.
+	 */
+	private final Set<InboundStreamAdapter<?>> saturated = new HashSet<>();
+
+	private Channel channel;
+
+	/**
+	 * Get the demultiplexer of the given connection.
+	 *
+	 * @param sock The connection
+	 * @return The connection's {@link StreamDemuxHandler}
+	 */
+	public static StreamDemuxHandler of(Connection sock) {
+		var handler = sock.channel().pipeline().get(StreamDemuxHandler.class);
+		if (handler == null)
+			throw new IllegalStateException("The connection does not support streams");
+
+		return handler;
+	}
+
+	@Override
+	public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+		channel = ctx.channel();
+	}
+
+	@Override
+	public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+		if (msg instanceof MSG m) {
+			if (m.getPayloadType() == STREAM_CREDIT) {
+				var adapter = outbound.get(m.getId());
+				if (adapter != null) {
+					adapter.grant(MsgUtil.unpack(m, EV_StreamCredit.class).getCredits());
+					return;
+				}
+			} else {
+				var adapter = inbound.get(m.getId());
+				if (adapter != null && adapter.accept(m)) {
+					return;
+				}
+			}
+		}
+
+		ctx.fireChannelRead(msg);
+	}
+
+	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+		if (ctx.channel().isWritable()) {
+			for (var adapter : outbound.values()) {
+				adapter.demand();
+			}
+		}
+
+		ctx.fireChannelWritabilityChanged();
+	}
+
+	@Override
+	public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+		ctx.fireChannelInactive();
+
+		for (var adapter : inbound.values()) {
+			adapter.close();
+		}
+	}
+
+	/**
+	 * Get the number of streams that are registered with this handler.
+	 *
+	 * @return The number of inbound and outbound streams
+	 */
+	public int getStreamCount() {
+		return inbound.size() + outbound.size();
+	}
+
+	/**
+	 * Use stream credit for streams opened from now on. This should only be called
+	 * once the remote instance is known to support it.
+	 */
+	public void enableCredit() {
+		credit = true;
+	}
+
+	/**
+	 * @return Whether streams on this connection use stream credit
+	 */
+	public boolean isCreditEnabled() {
+		return credit;
+	}
+
+	/**
+	 * Stop reading from the channel until the given adapter has caught up.
+	 *
+	 * @param adapter The saturated adapter
+	 */
+	synchronized void pause(InboundStreamAdapter<?> adapter) {
+		if (saturated.add(adapter) && saturated.size() == 1)
+			channel.config().setAutoRead(false);
+	}
+
+	/**
+	 * Resume reading from the channel if no other adapter is saturated.
+	 *
+	 * @param adapter The adapter that has caught up
+	 */
+	synchronized void resume(InboundStreamAdapter<?> adapter) {
+		if (saturated.remove(adapter) && saturated.isEmpty())
+			channel.config().setAutoRead(true);
+	}
+
+	synchronized void register(InboundStreamAdapter<?> adapter) {
+		var copy = new IntObjectHashMap<InboundStreamAdapter<?>>(inbound.size() + 1);
+		copy.putAll(inbound);
+		if (copy.put(adapter.getStreamID(), adapter) != null)
+			throw new IllegalArgumentException("Duplicate inbound stream: " + adapter.getStreamID());
+
+		inbound = copy;
+	}
+
+	synchronized void register(OutboundStreamAdapter<?> adapter) {
+		var copy = new IntObjectHashMap<OutboundStreamAdapter<?>>(outbound.size() + 1);
+		copy.putAll(outbound);
+		if (copy.put(adapter.getStreamID(), adapter) != null)
+			throw new IllegalArgumentException("Duplicate outbound stream: " + adapter.getStreamID());
+
+		outbound = copy;
+	}
+
+	synchronized void unregister(InboundStreamAdapter<?> adapter) {
+		if (inbound.get(adapter.getStreamID()) != adapter)
+			return;
+
+		var copy = new IntObjectHashMap<InboundStreamAdapter<?>>(inbound.size());
+		copy.putAll(inbound);
+		copy.remove(adapter.getStreamID());
+
+		inbound = copy;
+		resume(adapter);
+	}
+
+	synchronized void unregister(OutboundStreamAdapter<?> adapter) {
+		if (outbound.get(adapter.getStreamID()) != adapter)
+			return;
+
+		var copy = new IntObjectHashMap<OutboundStreamAdapter<?>>(outbound.size());
+		copy.putAll(outbound);
+		copy.remove(adapter.getStreamID());
+
+		outbound = copy;
+	}
+}
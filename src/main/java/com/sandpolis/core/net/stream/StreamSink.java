@@ -32,7 +32,8 @@ public abstract class StreamSink<E> implements Subscriber<E>, StreamEndpoint {
 	}
 
 	public void close() {
-		subscription.cancel();
+		if (subscription != null)
+			subscription.cancel();
 		subscription = null;
 	}
 
@@ -12,23 +12,35 @@ package com.sandpolis.core.net.stream;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.sandpolis.core.net.connection.ConnectionStore.ConnectionStore;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.eventbus.Subscribe;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
 import com.google.protobuf.MessageLite;
 import com.sandpolis.core.foundation.ConfigStruct;
 import com.sandpolis.core.instance.store.ConfigurableStore;
 import com.sandpolis.core.instance.store.MetadataStore;
 import com.sandpolis.core.instance.store.StoreBase;
 import com.sandpolis.core.instance.store.StoreMetadata;
+import com.sandpolis.core.net.connection.Connection;
 import com.sandpolis.core.net.connection.ConnectionStore.SockLostEvent;
+import com.sandpolis.core.net.msg.MsgStream.RQ_StreamStop;
 import com.sandpolis.core.net.stream.StreamStore.StreamStoreConfig;
 import com.sandpolis.core.net.stream.StreamStore.StreamStoreMetadata;
+import com.sandpolis.core.net.util.MsgUtil;
 
 /**
  * The {@link StreamStore} contains four "banks" of stream endpoints that each
@@ -61,6 +73,17 @@ import com.sandpolis.core.net.stream.StreamStore.StreamStoreMetadata;
  * [ ]    [ ]    [ ]    [ ]
  * </pre>
  *
+ * <p>
+ * Endpoints are indexed by stream ID and network adapters are also indexed by
+ * their connection, so routing, stopping a stream, and cleaning up after a lost
+ * connection only touch the endpoints involved.
+ *
+ * <p>
+ * The store also tracks which endpoints feed which. When an endpoint is closed,
+ * every endpoint that can no longer deliver or receive events because of it is
+ * closed too, and remote publishers are told to stop with
+ * {@link RQ_StreamStop}.
+ *
  * @since 5.0.2
  */
 public final class StreamStore extends StoreBase
@@ -75,65 +98,100 @@ public final class StreamStore extends StoreBase
 	private final StreamStoreMetadata metadata = new StreamStoreMetadata();
 
 	/**
-	 * The SOURCE bank.
+	 * The endpoints of a single stream ID in each bank. The lists are
+	 * copy-on-write so they can be read without holding any lock; they are only
+	 * modified inside the owning map's compute methods.
 	 */
-	private List<StreamSource> source;
+	@SuppressWarnings("rawtypes")
+	private static final class StreamEntry {
+
+		final List<StreamSource> source = new CopyOnWriteArrayList<>();
+		final List<StreamSink> sink = new CopyOnWriteArrayList<>();
+		final List<InboundStreamAdapter> inbound = new CopyOnWriteArrayList<>();
+		final List<OutboundStreamAdapter> outbound = new CopyOnWriteArrayList<>();
+
+		void remove(StreamEndpoint endpoint) {
+			source.remove(endpoint);
+			sink.remove(endpoint);
+			inbound.remove(endpoint);
+			outbound.remove(endpoint);
+		}
+
+		boolean isEmpty() {
+			return source.isEmpty() && sink.isEmpty() && inbound.isEmpty() && outbound.isEmpty();
+		}
+	}
 
 	/**
-	 * The SINK bank.
+	 * All stream endpoints keyed by stream ID.
 	 */
-	private List<StreamSink> sink;
+	private Map<Integer, StreamEntry> streams;
 
 	/**
-	 * The INBOUND bank.
+	 * The network adapters that belong to each connection.
 	 */
-	private List<InboundStreamAdapter> inbound;
+	private Map<Connection, Set<StreamEndpoint>> connections;
 
 	/**
-	 * The OUTBOUND bank.
+	 * The flow of events between endpoints. Each edge points from a publisher
+	 * (SOURCE or INBOUND) to one of its subscribers (SINK or OUTBOUND).
 	 */
-	private List<OutboundStreamAdapter> outbound;
+	private MutableGraph<StreamEndpoint> dependencies;
 
-	public synchronized <E extends MessageLite> void add(InboundStreamAdapter<E> in, OutboundStreamAdapter<E> out) {
+	public <E extends MessageLite> void add(InboundStreamAdapter<E> in, OutboundStreamAdapter<E> out) {
 		checkArgument(!in.isSubscribed(out));
 		log.debug("Connecting inbound stream {} to outbound stream {}", in, out);
 		in.subscribe(out);
 
-		this.inbound.add(in);
-		this.outbound.add(out);
+		index(in.getStreamID(), entry -> entry.inbound.add(in));
+		index(out.getStreamID(), entry -> entry.outbound.add(out));
+		index(in.getSock(), in);
+		index(out.getSock(), out);
+		link(in, out);
 	}
 
-	public synchronized <E extends MessageLite> void add(InboundStreamAdapter<E> in, StreamSink<E> sink) {
+	public <E extends MessageLite> void add(InboundStreamAdapter<E> in, StreamSink<E> sink) {
 		checkArgument(!in.isSubscribed(sink));
 		log.debug("Connecting inbound stream {} to sink stream {}", in, sink);
 		in.subscribe(sink);
 
-		this.inbound.add(in);
-		this.sink.add(sink);
+		index(in.getStreamID(), entry -> entry.inbound.add(in));
+		index(sink.getStreamID(), entry -> entry.sink.add(sink));
+		index(in.getSock(), in);
+		link(in, sink);
 	}
 
-	public synchronized <E extends MessageLite> void add(StreamSource<E> source, OutboundStreamAdapter<E> out) {
+	public <E extends MessageLite> void add(StreamSource<E> source, OutboundStreamAdapter<E> out) {
 		checkArgument(!source.isSubscribed(out));
 		log.debug("Connecting source stream {} to outbound stream {}", source, out);
 		source.subscribe(out);
 
-		this.source.add(source);
-		this.outbound.add(out);
+		index(source.getStreamID(), entry -> entry.source.add(source));
+		index(out.getStreamID(), entry -> entry.outbound.add(out));
+		index(out.getSock(), out);
+		link(source, out);
 	}
 
-	public synchronized <E extends MessageLite> void add(StreamSource<E> source, StreamSink<E> sink) {
+	public <E extends MessageLite> void add(StreamSource<E> source, StreamSink<E> sink) {
 		checkArgument(!source.isSubscribed(sink));
 		log.debug("Connecting source stream {} to sink stream {}", source, sink);
 		source.subscribe(sink);
 
-		this.source.add(source);
-		this.sink.add(sink);
+		index(source.getStreamID(), entry -> entry.source.add(source));
+		index(sink.getStreamID(), entry -> entry.sink.add(sink));
+		link(source, sink);
 	}
 
-	public synchronized void streamData(int id, MessageLite data) {
-		inbound.stream().filter(adapter -> adapter.getStreamID() == id).findFirst().ifPresent(adapter -> {
-			adapter.submit(data);
-		});
+	@SuppressWarnings("unchecked")
+	public void streamData(int id, MessageLite data) {
+		var entry = streams.get(id);
+		if (entry == null)
+			return;
+
+		// Only the first adapter of the stream receives local data
+		var it = entry.inbound.iterator();
+		if (it.hasNext())
+			it.next().submit(data);
 	}
 
 	/**
@@ -142,45 +200,119 @@ public final class StreamStore extends StoreBase
 	 *
 	 * @param id The stream ID
 	 */
-	public synchronized void stop(int id) {
-		inbound.removeIf(adapter -> {
-			if (adapter.getStreamID() == id) {
-				adapter.close();
-				return true;
+	public void stop(int id) {
+		var entry = streams.remove(id);
+		if (entry == null)
+			return;
+
+		var endpoints = new ArrayList<StreamEndpoint>();
+		endpoints.addAll(entry.source);
+		endpoints.addAll(entry.sink);
+		endpoints.addAll(entry.inbound);
+		endpoints.addAll(entry.outbound);
+
+		teardown(endpoints, null);
+	}
+
+	@Subscribe
+	private void onSockLost(SockLostEvent event) {
+		var endpoints = connections.remove(event.connection());
+		if (endpoints == null)
+			return;
+
+		teardown(endpoints, event.connection());
+	}
+
+	/**
+	 * Close the given endpoints and every endpoint that depends on them. A
+	 * publisher that has lost all of its subscribers has nowhere to deliver
+	 * events, and a subscriber that has lost all of its publishers will never
+	 * receive another one.
+	 *
+	 * @param endpoints The endpoints to close
+	 * @param lost      The connection that was lost or {@code null}
+	 */
+	private void teardown(Collection<StreamEndpoint> endpoints, Connection lost) {
+		var closed = new LinkedHashSet<StreamEndpoint>(endpoints);
+
+		synchronized (dependencies) {
+			var queue = new ArrayDeque<StreamEndpoint>(endpoints);
+			while (!queue.isEmpty()) {
+				var endpoint = queue.poll();
+				if (!dependencies.nodes().contains(endpoint))
+					continue;
+
+				var upstream = List.copyOf(dependencies.predecessors(endpoint));
+				var downstream = List.copyOf(dependencies.successors(endpoint));
+				dependencies.removeNode(endpoint);
+
+				for (var publisher : upstream) {
+					if (dependencies.outDegree(publisher) == 0 && closed.add(publisher))
+						queue.add(publisher);
+				}
+				for (var subscriber : downstream) {
+					if (dependencies.inDegree(subscriber) == 0 && closed.add(subscriber))
+						queue.add(subscriber);
+				}
 			}
-			return false;
-		});
-		outbound.removeIf(adapter -> {
-			if (adapter.getStreamID() == id) {
+		}
+
+		for (var endpoint : closed) {
+			unindex(endpoint);
+
+			if (endpoint instanceof InboundStreamAdapter<?> adapter) {
+				// Tell the remote publisher to stop sending
+				if (adapter.getSock() != lost)
+					adapter.getSock().send(MsgUtil.rq(RQ_StreamStop.newBuilder().setId(adapter.getStreamID())));
 				adapter.close();
-				return true;
-			}
-			return false;
-		});
-		source.removeIf(source -> {
-			if (source.getStreamID() == id) {
+			} else if (endpoint instanceof OutboundStreamAdapter<?> adapter) {
+				adapter.close();
+			} else if (endpoint instanceof StreamSource<?> source) {
+				source.stop();
 				source.close();
-				return true;
-			}
-			return false;
-		});
-		sink.removeIf(sink -> {
-			if (sink.getStreamID() == id) {
+			} else if (endpoint instanceof StreamSink<?> sink) {
 				sink.close();
-				return true;
 			}
-			return false;
+		}
+	}
+
+	private void link(StreamEndpoint publisher, StreamEndpoint subscriber) {
+		synchronized (dependencies) {
+			dependencies.putEdge(publisher, subscriber);
+		}
+	}
+
+	private void index(int id, Consumer<StreamEntry> action) {
+		streams.compute(id, (key, entry) -> {
+			if (entry == null)
+				entry = new StreamEntry();
+
+			action.accept(entry);
+			return entry;
 		});
+	}
 
-		// TODO find dependent streams to also close
+	private void index(Connection sock, StreamEndpoint endpoint) {
+		connections.computeIfAbsent(sock, key -> ConcurrentHashMap.newKeySet()).add(endpoint);
 	}
 
-	@Subscribe
-	private synchronized void onSockLost(SockLostEvent event) {
-		inbound.removeIf(adapter -> adapter.getSock().equals(event.connection()));
-		outbound.removeIf(adapter -> adapter.getSock().equals(event.connection()));
+	private void unindex(StreamEndpoint endpoint) {
+		streams.computeIfPresent(endpoint.getStreamID(), (id, entry) -> {
+			entry.remove(endpoint);
+			return entry.isEmpty() ? null : entry;
+		});
 
-		// TODO find dependent streams to also close
+		if (endpoint instanceof InboundStreamAdapter<?> adapter)
+			unindex(adapter.getSock(), adapter);
+		else if (endpoint instanceof OutboundStreamAdapter<?> adapter)
+			unindex(adapter.getSock(), adapter);
+	}
+
+	private void unindex(Connection sock, StreamEndpoint endpoint) {
+		connections.computeIfPresent(sock, (key, endpoints) -> {
+			endpoints.remove(endpoint);
+			return endpoints.isEmpty() ? null : endpoints;
+		});
 	}
 
 	@Override
@@ -193,10 +325,9 @@ public final class StreamStore extends StoreBase
 		var config = new StreamStoreConfig();
 		configurator.accept(config);
 
-		source = new ArrayList<>();
-		sink = new ArrayList<>();
-		inbound = new ArrayList<>();
-		outbound = new ArrayList<>();
+		streams = new ConcurrentHashMap<>();
+		connections = new ConcurrentHashMap<>();
+		dependencies = GraphBuilder.directed().build();
 
 		ConnectionStore.register(this);
 	}
@@ -209,19 +340,19 @@ public final class StreamStore extends StoreBase
 		}
 
 		public int sourceSize() {
-			return source.size();
+			return streams.values().stream().mapToInt(entry -> entry.source.size()).sum();
 		}
 
 		public int sinkSize() {
-			return sink.size();
+			return streams.values().stream().mapToInt(entry -> entry.sink.size()).sum();
 		}
 
 		public int inboundSize() {
-			return inbound.size();
+			return streams.values().stream().mapToInt(entry -> entry.inbound.size()).sum();
 		}
 
 		public int outboundSize() {
-			return outbound.size();
+			return streams.values().stream().mapToInt(entry -> entry.outbound.size()).sum();
 		}
 	}
 
@@ -12,10 +12,11 @@ package com.sandpolis.core.net.util;
 import java.lang.reflect.Method;
 
 import com.google.common.hash.Hashing;
-import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.MessageLite;
 import com.google.protobuf.MessageLite.Builder;
 import com.google.protobuf.MessageLiteOrBuilder;
+import com.google.protobuf.Parser;
 import com.sandpolis.core.foundation.util.IDUtil;
 import com.sandpolis.core.net.Message.MSG;
 
@@ -28,6 +29,37 @@ import com.sandpolis.core.net.Message.MSG;
  */
 public final class MsgUtil {
 
+	/**
+	 * A cache of payload types so the type name only needs to be hashed once per
+	 * class.
+	 */
+	private static final ClassValue<Integer> PAYLOAD_TYPES = new ClassValue<>() {
+		@Override
+		protected Integer computeValue(Class<?> messageType) {
+			String name = messageType.getName();
+
+			// Builders have the same payload type as their messages
+			if (name.endsWith("$Builder"))
+				name = name.substring(0, name.length() - "$Builder".length());
+
+			return Hashing.murmur3_32().hashUnencodedChars(name).asInt();
+		}
+	};
+
+	/**
+	 * A cache of protobuf parsers so payloads can be parsed without reflection.
+	 */
+	private static final ClassValue<Parser<?>> PARSERS = new ClassValue<>() {
+		@Override
+		protected Parser<?> computeValue(Class<?> messageType) {
+			try {
+				return ((MessageLite) messageType.getMethod("getDefaultInstance").invoke(null)).getParserForType();
+			} catch (Exception e) {
+				throw new IllegalArgumentException("Not a protobuf message: " + messageType.getName(), e);
+			}
+		}
+	};
+
 	public static MSG.Builder msg() {
 		return MSG.newBuilder();
 	}
@@ -48,13 +80,24 @@ public final class MsgUtil {
 
 	public static <T extends MessageLite> T unpack(MSG msg, Class<T> payloadType) {
 		try {
-			var parseFrom = payloadType.getMethod("parseFrom", ByteString.class);
-			return (T) parseFrom.invoke(null, msg.getPayload());
-		} catch (Exception e) {
+			return parser(payloadType).parseFrom(msg.getPayload());
+		} catch (InvalidProtocolBufferException e) {
 			throw new IllegalArgumentException(e);
 		}
 	}
 
+	/**
+	 * Get the protobuf {@link Parser} for the given message type.
+	 *
+	 * @param <T>         The message type
+	 * @param messageType The message type
+	 * @return The message type's parser
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends MessageLite> Parser<T> parser(Class<T> messageType) {
+		return (Parser<T>) PARSERS.get(messageType);
+	}
+
 	/**
 	 * Create a new empty request message.
 	 *
@@ -123,7 +166,7 @@ public final class MsgUtil {
 	}
 
 	public static int getPayloadType(Class<?> messageType) {
-		return Hashing.murmur3_32().hashUnencodedChars(messageType.getName().replaceAll("\\$Builder$", "")).asInt();
+		return PAYLOAD_TYPES.get(messageType);
 	}
 
 	public static int getPayloadType(Method method) {
@@ -0,0 +1,153 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.util.collection.IntObjectHashMap;
+
+/**
+ * A thread-safe map with primitive {@code int} keys.
+ *
+ * <p>
+ * Entries are spread over a fixed number of {@link IntObjectHashMap} stripes,
+ * each guarded by its own monitor. Threads that touch different keys rarely
+ * contend for the same stripe, and unlike a {@code ConcurrentMap<Integer, V>},
+ * no key is ever boxed.
+ *
+ * @param <V> The value type
+ * @since 7.0.0
+ */
+public final class StripedIntObjectMap<V> {
+
+	private final IntObjectHashMap<V>[] stripes;
+
+	private final int mask;
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	public StripedIntObjectMap() {
+		this(Runtime.getRuntime().availableProcessors() * 2);
+	}
+
+	/**
+	 * @param concurrency The expected number of threads that update the map at the
+	 *                    same time
+	 */
+	@SuppressWarnings("unchecked")
+	public StripedIntObjectMap(int concurrency) {
+		if (concurrency <= 0)
+			throw new IllegalArgumentException("Concurrency: " + concurrency);
+
+		// Round up to a power of two
+		int count = Integer.highestOneBit(concurrency);
+		if (count < concurrency)
+			count <<= 1;
+
+		stripes = new IntObjectHashMap[count];
+		for (int i = 0; i < count; i++)
+			stripes[i] = new IntObjectHashMap<>();
+		mask = count - 1;
+	}
+
+	private IntObjectHashMap<V> stripe(int key) {
+		// Sequential and CVID-like keys differ mostly in their low bits
+		int hash = key * 0x9E3779B9;
+		return stripes[(hash ^ (hash >>> 16)) & mask];
+	}
+
+	/**
+	 * @param key The key
+	 * @return The value associated with the key or {@code null}
+	 */
+	public V get(int key) {
+		var stripe = stripe(key);
+		synchronized (stripe) {
+			return stripe.get(key);
+		}
+	}
+
+	/**
+	 * Associate a value with a key, replacing any previous value.
+	 *
+	 * @param key   The key
+	 * @param value The new value
+	 * @return The previous value or {@code null}
+	 */
+	public V put(int key, V value) {
+		var stripe = stripe(key);
+		synchronized (stripe) {
+			var previous = stripe.put(key, value);
+			if (previous == null)
+				size.incrementAndGet();
+			return previous;
+		}
+	}
+
+	/**
+	 * Associate a value with a key unless the key already has a value.
+	 *
+	 * @param key   The key
+	 * @param value The new value
+	 * @return The existing value or {@code null} if the new value was added
+	 */
+	public V putIfAbsent(int key, V value) {
+		var stripe = stripe(key);
+		synchronized (stripe) {
+			var existing = stripe.get(key);
+			if (existing != null)
+				return existing;
+
+			stripe.put(key, value);
+			size.incrementAndGet();
+			return null;
+		}
+	}
+
+	/**
+	 * @param key The key
+	 * @return The removed value or {@code null}
+	 */
+	public V remove(int key) {
+		var stripe = stripe(key);
+		synchronized (stripe) {
+			var previous = stripe.remove(key);
+			if (previous != null)
+				size.decrementAndGet();
+			return previous;
+		}
+	}
+
+	/**
+	 * Remove a key only if it's associated with the given value.
+	 *
+	 * @param key   The key
+	 * @param value The expected value
+	 * @return Whether the entry was removed
+	 */
+	public boolean remove(int key, V value) {
+		var stripe = stripe(key);
+		synchronized (stripe) {
+			if (value == null || stripe.get(key) != value)
+				return false;
+
+			stripe.remove(key);
+			size.decrementAndGet();
+			return true;
+		}
+	}
+
+	/**
+	 * @return The number of entries in the map
+	 */
+	public int size() {
+		return size.get();
+	}
+}
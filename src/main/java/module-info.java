@@ -38,5 +38,6 @@ open module com.sandpolis.core.net {
 	requires io.netty.handler;
 	requires io.netty.resolver.dns;
 	requires io.netty.transport;
+	requires java.management;
 	requires org.slf4j;
 }
@@ -0,0 +1,172 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sandpolis.core.net.cvid.HandshakeAdmission;
+
+class BackoffPolicyTest {
+
+	/**
+	 * The number of simulated instances.
+	 */
+	private static final int INSTANCES = 2000;
+
+	/**
+	 * The time at which the simulated server comes back up in milliseconds.
+	 */
+	private static final int RESTART = 10000;
+
+	/**
+	 * The length of the simulation in milliseconds.
+	 */
+	private static final int HORIZON = 120000;
+
+	/**
+	 * The width of a histogram bucket in milliseconds.
+	 */
+	private static final int BUCKET = 100;
+
+	private static record Attempt(long time, int attempt, int previous) {
+	}
+
+	private static record Result(int[] arrivals, int[] admitted, int connected) {
+
+		int peakArrivals() {
+			int peak = 0;
+			for (int i = RESTART / BUCKET; i < arrivals.length; i++)
+				peak = Math.max(peak, arrivals[i]);
+			return peak;
+		}
+
+		int peakAdmittedPerSecond() {
+			int peak = 0;
+			for (int i = 0; i + 1000 / BUCKET <= admitted.length; i++) {
+				int sum = 0;
+				for (int j = i; j < i + 1000 / BUCKET; j++)
+					sum += admitted[j];
+				peak = Math.max(peak, sum);
+			}
+			return peak;
+		}
+	}
+
+	/**
+	 * Simulate every instance losing its connection at the same moment (a server
+	 * restart) and then reconnecting according to the given policy.
+	 */
+	private static Result simulate(BackoffPolicy policy, HandshakeAdmission admission) {
+		var arrivals = new int[HORIZON / BUCKET];
+		var admitted = new int[HORIZON / BUCKET];
+		int connected = 0;
+
+		var queue = new PriorityQueue<Attempt>((a, b) -> Long.compare(a.time(), b.time()));
+		for (int i = 0; i < INSTANCES; i++)
+			queue.add(new Attempt(0, 0, 0));
+
+		while (!queue.isEmpty()) {
+			var attempt = queue.poll();
+			if (attempt.time() >= HORIZON)
+				break;
+
+			arrivals[(int) attempt.time() / BUCKET]++;
+
+			int retryAfter = 0;
+			if (attempt.time() >= RESTART) {
+				retryAfter = admission == null ? 0 : admission.admit(TimeUnit.MILLISECONDS.toNanos(attempt.time()));
+				if (retryAfter == 0) {
+					admitted[(int) attempt.time() / BUCKET]++;
+					connected++;
+					continue;
+				}
+			}
+
+			int delay = policy.delay(attempt.attempt() + 1, attempt.previous());
+			queue.add(new Attempt(attempt.time() + Math.max(delay, retryAfter), attempt.attempt() + 1, delay));
+		}
+
+		return new Result(arrivals, admitted, connected);
+	}
+
+	@Test
+	@DisplayName("Check that the exponential policy doubles and is capped")
+	void exponential_1() {
+		var policy = BackoffPolicy.exponential(100, 1, 1000);
+
+		assertEquals(100, policy.delay(1, 0));
+		assertEquals(200, policy.delay(2, 100));
+		assertEquals(400, policy.delay(3, 200));
+		assertEquals(1000, policy.delay(10, 1000));
+		assertEquals(1000, policy.delay(Integer.MAX_VALUE, 1000));
+	}
+
+	@Test
+	@DisplayName("Check that jittered policies stay within bounds")
+	void jitter_1() {
+		var full = BackoffPolicy.fullJitter(100, 1000);
+		var decorrelated = BackoffPolicy.decorrelatedJitter(100, 1000);
+
+		int previous = 0;
+		for (int i = 1; i < 1000; i++) {
+			int delay = full.delay(i, previous);
+			assertTrue(delay >= 0 && delay <= 1000);
+
+			delay = decorrelated.delay(i, previous);
+			assertTrue(delay >= 100 && delay <= 1000);
+			previous = delay;
+		}
+	}
+
+	@Test
+	@DisplayName("Check that full jitter accepts an unlimited cap")
+	void jitter_2() {
+		var policy = BackoffPolicy.fullJitter(1000, Integer.MAX_VALUE);
+
+		for (int i = 1; i < 100; i++)
+			assertTrue(policy.delay(i, 0) >= 0);
+	}
+
+	@Test
+	@DisplayName("Simulate a reconnect storm with a constant policy")
+	void simulate_1() {
+		var result = simulate(BackoffPolicy.constant(1000), null);
+
+		// Every instance arrives in the same instant
+		assertEquals(INSTANCES, result.peakArrivals());
+		assertEquals(INSTANCES, result.connected());
+	}
+
+	@Test
+	@DisplayName("Simulate a reconnect storm with a jittered policy")
+	void simulate_2() {
+		var result = simulate(BackoffPolicy.decorrelatedJitter(1000, 30000), null);
+
+		assertTrue(result.peakArrivals() < INSTANCES / 10, "Peak arrivals: " + result.peakArrivals());
+		assertEquals(INSTANCES, result.connected());
+	}
+
+	@Test
+	@DisplayName("Simulate a reconnect storm with a jittered policy and admission control")
+	void simulate_3() {
+		var result = simulate(BackoffPolicy.decorrelatedJitter(1000, 30000), new HandshakeAdmission(200, 50));
+
+		assertTrue(result.peakAdmittedPerSecond() <= 200 + 50,
+				"Peak admitted per second: " + result.peakAdmittedPerSecond());
+		assertEquals(INSTANCES, result.connected());
+	}
+}
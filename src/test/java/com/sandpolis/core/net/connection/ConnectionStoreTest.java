@@ -0,0 +1,90 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.connection;
+
+import static com.sandpolis.core.net.connection.ConnectionStore.ConnectionStore;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sandpolis.core.instance.Metatypes.InstanceFlavor;
+import com.sandpolis.core.instance.Metatypes.InstanceType;
+import com.sandpolis.core.instance.state.ConnectionOid;
+import com.sandpolis.core.net.channel.ChannelConstant;
+import com.sandpolis.core.net.cvid.AbstractCvidHandler.CvidHandshakeCompletionEvent;
+import com.sandpolis.core.net.handler.ManagementHandler;
+import com.sandpolis.core.net.util.CvidUtil;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+
+class ConnectionStoreTest {
+
+	private static final int REMOTE = CvidUtil.cvid(InstanceType.AGENT, InstanceFlavor.GENERIC);
+
+	@Test
+	@DisplayName("Index a connection once its CVID handshake completes")
+	void index_1() {
+		var channel = channel();
+		var connection = connection(channel, REMOTE);
+		assertTrue(ConnectionStore.getByCvid(REMOTE).isEmpty());
+
+		channel.pipeline().fireUserEventTriggered(new CvidHandshakeCompletionEvent(123, REMOTE));
+		assertSame(connection, ConnectionStore.getByCvid(REMOTE).get());
+
+		channel.close();
+		assertTrue(ConnectionStore.getByCvid(REMOTE).isEmpty());
+	}
+
+	@Test
+	@DisplayName("Don't index a connection whose CVID handshake failed")
+	void index_2() {
+		var channel = channel();
+		connection(channel, REMOTE);
+
+		channel.pipeline().fireUserEventTriggered(new CvidHandshakeCompletionEvent());
+		assertTrue(ConnectionStore.getByCvid(REMOTE).isEmpty());
+
+		channel.close();
+	}
+
+	@Test
+	@DisplayName("Keep a reconnected instance indexed when its old connection is lost")
+	void index_3() {
+		var oldChannel = channel();
+		connection(oldChannel, REMOTE);
+		oldChannel.pipeline().fireUserEventTriggered(new CvidHandshakeCompletionEvent(123, REMOTE));
+
+		var newChannel = channel();
+		var connection = connection(newChannel, REMOTE);
+		newChannel.pipeline().fireUserEventTriggered(new CvidHandshakeCompletionEvent(123, REMOTE));
+
+		oldChannel.close();
+		assertFalse(oldChannel.isActive());
+		assertSame(connection, ConnectionStore.getByCvid(REMOTE).get());
+
+		newChannel.close();
+		assertTrue(ConnectionStore.getByCvid(REMOTE).isEmpty());
+	}
+
+	private static EmbeddedChannel channel() {
+		var channel = new EmbeddedChannel(new ManagementHandler());
+		channel.attr(ChannelConstant.HANDSHAKE_FUTURE).set(channel.eventLoop().newPromise());
+		return channel;
+	}
+
+	private static Connection connection(EmbeddedChannel channel, int remote) {
+		var connection = ConnectionStore.create(channel);
+		connection.set(ConnectionOid.REMOTE_CVID, remote);
+		return connection;
+	}
+}
@@ -0,0 +1,69 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+
+class FlushBatchingHandlerTest {
+
+	@Test
+	@DisplayName("Flush once the batch is full")
+	void testBatchSize() {
+		var handler = new FlushBatchingHandler(3, TimeUnit.SECONDS.toMicros(60));
+		var channel = new EmbeddedChannel(handler);
+
+		channel.writeAndFlush("1");
+		channel.writeAndFlush("2");
+		assertEquals(0, channel.outboundMessages().size());
+
+		channel.writeAndFlush("3");
+		assertEquals(3, channel.outboundMessages().size());
+
+		assertEquals(1, handler.getBatchCount());
+		assertEquals(3, handler.getMessageCount());
+		assertEquals(3, handler.getLargestBatchSize());
+	}
+
+	@Test
+	@DisplayName("Flush once the delay expires")
+	void testMaxDelay() {
+		var handler = new FlushBatchingHandler(100, TimeUnit.MILLISECONDS.toMicros(10));
+		var channel = new EmbeddedChannel(handler);
+
+		channel.writeAndFlush("1");
+		assertEquals(0, channel.outboundMessages().size());
+
+		await().atMost(1000, TimeUnit.MILLISECONDS).until(() -> {
+			channel.runScheduledPendingTasks();
+			return channel.outboundMessages().size() == 1;
+		});
+		assertEquals(1, handler.getBatchCount());
+	}
+
+	@Test
+	@DisplayName("Flush pending messages on close")
+	void testClose() {
+		var handler = new FlushBatchingHandler(100, TimeUnit.SECONDS.toMicros(60));
+		var channel = new EmbeddedChannel(handler);
+
+		channel.writeAndFlush("1");
+		channel.close();
+
+		assertEquals(1, channel.outboundMessages().size());
+	}
+}
@@ -0,0 +1,117 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.ByteString;
+import com.sandpolis.core.net.Channel.ChannelCompression;
+import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.msg.MsgStream.EV_StreamCredit;
+import com.sandpolis.core.net.util.MsgUtil;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+class FrameCompressionHandlerTest {
+
+	private FrameCompressionHandler sender;
+
+	private FrameCompressionHandler receiver;
+
+	private EmbeddedChannel out;
+
+	private EmbeddedChannel in;
+
+	@BeforeEach
+	void setup() {
+		sender = new FrameCompressionHandler(ChannelCompression.DEFLATE, 64);
+		receiver = new FrameCompressionHandler(ChannelCompression.DEFLATE, 64);
+		out = new EmbeddedChannel(sender, new MsgEncoder());
+		in = new EmbeddedChannel(receiver, new MsgDecoder());
+	}
+
+	/**
+	 * Send a message from one channel to the other.
+	 *
+	 * @return The size of the frame on the wire
+	 */
+	private int transfer(MSG msg) {
+		out.writeOutbound(msg);
+
+		ByteBuf frame = out.readOutbound();
+		int size = frame.readableBytes();
+
+		// Strip the length prefix like the frame decoder would
+		while (frame.readByte() < 0)
+			;
+		in.writeInbound(frame);
+
+		assertEquals(msg, in.readInbound());
+		return size;
+	}
+
+	private static MSG repetitive(int length) {
+		return MSG.newBuilder().setId(5).setPayload(ByteString.copyFromUtf8("abcd".repeat(length / 4))).build();
+	}
+
+	@Test
+	@DisplayName("Pass frames through before compression is negotiated")
+	void testDisabled() {
+		var msg = repetitive(1024);
+
+		assertEquals(msg.getSerializedSize() + 2, transfer(msg));
+	}
+
+	@Test
+	@DisplayName("Compress large frames")
+	void testCompress() {
+		sender.enable(List.of());
+		receiver.enable(List.of());
+
+		var msg = repetitive(4096);
+		assertTrue(transfer(msg) < msg.getSerializedSize() / 10);
+		assertTrue(sender.getStats().getOutboundRatio() > 10);
+		assertTrue(receiver.getStats().getInboundRatio() > 10);
+	}
+
+	@Test
+	@DisplayName("Don't compress small frames")
+	void testThreshold() {
+		sender.enable(List.of());
+		receiver.enable(List.of());
+
+		var msg = repetitive(16);
+		assertEquals(msg.getSerializedSize() + 2, transfer(msg));
+	}
+
+	@Test
+	@DisplayName("Compress with a preset dictionary")
+	void testDictionary() {
+		var dictionary = "The quick brown fox jumps over the lazy dog".repeat(4).getBytes();
+		int id = CompressionDictionary.register(EV_StreamCredit.class, dictionary);
+
+		sender.enable(List.of(id));
+		receiver.enable(List.of(id));
+
+		var msg = MsgUtil.msg(EV_StreamCredit.newBuilder()).setPayload(ByteString.copyFrom(dictionary)).build();
+		int plain = transfer(MsgUtil.msg(EV_StreamCredit.newBuilder()).build());
+
+		// Nearly the entire payload should be a reference into the dictionary
+		assertTrue(transfer(msg) < plain + 32);
+	}
+}
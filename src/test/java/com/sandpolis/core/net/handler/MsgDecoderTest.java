@@ -0,0 +1,109 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.msg.MsgStream.RQ_StreamStop;
+import com.sandpolis.core.net.util.MsgUtil;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+
+class MsgDecoderTest {
+
+	private EmbeddedChannel channel;
+
+	@BeforeEach
+	void setup() {
+		channel = new EmbeddedChannel(new MsgDecoder());
+	}
+
+	private static ByteBuf direct(byte[] bytes) {
+		return PooledByteBufAllocator.DEFAULT.directBuffer(bytes.length).writeBytes(bytes);
+	}
+
+	@Test
+	@DisplayName("Decode a message from a pooled direct buffer")
+	void testDecode() {
+		var msg = MsgUtil.rq(RQ_StreamStop.newBuilder().setId(42)).setTo(123).setFrom(456).build();
+
+		var frame = direct(msg.toByteArray());
+		channel.writeInbound(frame);
+
+		MSG decoded = channel.readInbound();
+		assertEquals(msg, decoded);
+		assertEquals(42, MsgUtil.unpack(decoded, RQ_StreamStop.class).getId());
+		assertEquals(0, frame.refCnt(), "The frame was not released");
+	}
+
+	@Test
+	@DisplayName("Decode a message with default fields")
+	void testDecodeEmpty() {
+		channel.writeInbound(Unpooled.EMPTY_BUFFER);
+
+		assertEquals(MSG.getDefaultInstance(), channel.readInbound());
+	}
+
+	@Test
+	@DisplayName("Skip unknown fields")
+	void testDecodeUnknown() throws Exception {
+		var bytes = ByteString.newOutput();
+		var output = CodedOutputStream.newInstance(bytes);
+		output.writeInt32(MSG.ID_FIELD_NUMBER, 7);
+		output.writeBytes(15, ByteString.copyFromUtf8("unknown"));
+		output.writeInt32(MSG.PAYLOAD_TYPE_FIELD_NUMBER, 9);
+		output.flush();
+
+		channel.writeInbound(direct(bytes.toByteString().toByteArray()));
+
+		assertEquals(MSG.newBuilder().setId(7).setPayloadType(9).build(), channel.readInbound());
+	}
+
+	@Test
+	@DisplayName("Reject a truncated message")
+	void testDecodeTruncated() {
+		// The payload claims to be 5 bytes long, but only 1 byte follows
+		var bytes = new byte[] { 0x2A, 0x05, 0x01 };
+
+		assertThrows(DecoderException.class, () -> channel.writeInbound(direct(bytes)));
+		assertNull(channel.readInbound());
+	}
+
+	@Test
+	@DisplayName("Peek at the destination of a message")
+	void testPeekTo() {
+		assertEquals(123, MsgDecoder.peekTo(Unpooled.wrappedBuffer(MSG.newBuilder().setTo(123).setId(4).toByteArray())));
+		assertEquals(-5, MsgDecoder.peekTo(Unpooled.wrappedBuffer(MSG.newBuilder().setTo(-5).toByteArray())));
+		assertEquals(0, MsgDecoder.peekTo(Unpooled.wrappedBuffer(MSG.newBuilder().setFrom(123).toByteArray())));
+		assertEquals(0, MsgDecoder.peekTo(Unpooled.EMPTY_BUFFER));
+	}
+
+	@Test
+	@DisplayName("Peek at the source of a message")
+	void testPeekFrom() {
+		assertEquals(456, MsgDecoder
+				.peekFrom(Unpooled.wrappedBuffer(MSG.newBuilder().setTo(123).setFrom(456).setId(4).toByteArray())));
+		assertEquals(456, MsgDecoder.peekFrom(Unpooled.wrappedBuffer(MSG.newBuilder().setFrom(456).toByteArray())));
+		assertEquals(0, MsgDecoder.peekFrom(Unpooled.wrappedBuffer(MSG.newBuilder().setTo(123).toByteArray())));
+	}
+}
@@ -0,0 +1,61 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.CodedOutputStream;
+import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.msg.MsgStream.RQ_StreamStop;
+import com.sandpolis.core.net.util.MsgUtil;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+class MsgEncoderTest {
+
+	private final EmbeddedChannel channel = new EmbeddedChannel(new MsgEncoder());
+
+	@Test
+	@DisplayName("Encode a message into an exactly sized frame")
+	void testEncode() throws Exception {
+		var msg = MsgUtil.rq(RQ_StreamStop.newBuilder().setId(42)).setTo(123).setFrom(456).build();
+		channel.writeOutbound(msg);
+
+		ByteBuf frame = channel.readOutbound();
+		try {
+			int size = msg.getSerializedSize();
+			assertEquals(CodedOutputStream.computeUInt32SizeNoTag(size) + size, frame.readableBytes());
+			assertEquals(frame.capacity(), frame.readableBytes());
+
+			assertEquals(size, frame.readByte());
+			assertEquals(msg, MsgDecoder.decode(frame));
+		} finally {
+			frame.release();
+		}
+	}
+
+	@Test
+	@DisplayName("Encode an empty message")
+	void testEncodeEmpty() throws Exception {
+		channel.writeOutbound(MSG.getDefaultInstance());
+
+		ByteBuf frame = channel.readOutbound();
+		try {
+			assertEquals(1, frame.readableBytes());
+			assertEquals(0, frame.readByte());
+		} finally {
+			frame.release();
+		}
+	}
+}
@@ -0,0 +1,90 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.msg.MsgNetwork.RQ_Ping;
+import com.sandpolis.core.net.msg.MsgNetwork.RS_Ping;
+import com.sandpolis.core.net.util.MsgUtil;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.timeout.IdleStateEvent;
+
+class PingHandlerTest {
+
+	private EmbeddedChannel channel;
+
+	private PingHandler handler;
+
+	@BeforeEach
+	void setup() {
+		handler = new PingHandler(0);
+		channel = new EmbeddedChannel(handler);
+	}
+
+	@Test
+	@DisplayName("Answer a ping request")
+	void testRespond() {
+		var rq = MsgUtil.rq(RQ_Ping.newBuilder()).build();
+		channel.writeInbound(rq);
+
+		MSG rs = channel.readOutbound();
+		assertEquals(rq.getId(), rs.getId());
+		assertEquals(MsgUtil.getPayloadType(RS_Ping.class), rs.getPayloadType());
+		assertNull(channel.readInbound(), "Ping request passed the handler");
+	}
+
+	@Test
+	@DisplayName("Only ping remote hosts that answer pings")
+	void testDisabled() {
+		channel.pipeline().fireUserEventTriggered(IdleStateEvent.FIRST_READER_IDLE_STATE_EVENT);
+
+		assertNull(channel.readOutbound());
+	}
+
+	@Test
+	@DisplayName("Measure the round-trip time of a ping")
+	void testMeasure() {
+		handler.enable();
+		channel.pipeline().fireUserEventTriggered(IdleStateEvent.FIRST_READER_IDLE_STATE_EVENT);
+
+		MSG rq = channel.readOutbound();
+		assertEquals(MsgUtil.getPayloadType(RQ_Ping.class), rq.getPayloadType());
+
+		channel.writeInbound(MsgUtil.rs(rq, RS_Ping.newBuilder()).build());
+		assertNull(channel.readInbound(), "Ping response passed the handler");
+
+		var stats = handler.getRttStats();
+		assertEquals(1, stats.getCount());
+		assertTrue(stats.getLast() >= 0);
+		assertEquals(stats.getLast(), stats.getAverage());
+		assertEquals(stats.getLast(), stats.getPercentile(99));
+	}
+
+	@Test
+	@DisplayName("Close the channel when a ping goes unanswered")
+	void testTimeout() {
+		handler.enable();
+		channel.pipeline().fireUserEventTriggered(IdleStateEvent.FIRST_READER_IDLE_STATE_EVENT);
+		assertTrue(channel.isOpen());
+
+		channel.pipeline().fireUserEventTriggered(IdleStateEvent.READER_IDLE_STATE_EVENT);
+		assertFalse(channel.isOpen());
+	}
+}
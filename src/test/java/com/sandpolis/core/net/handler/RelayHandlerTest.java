@@ -0,0 +1,95 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import static com.sandpolis.core.net.connection.ConnectionStore.ConnectionStore;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sandpolis.core.instance.state.ConnectionOid;
+import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.channel.ChannelConstant;
+import com.sandpolis.core.net.connection.Connection;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+class RelayHandlerTest {
+
+	private static final int REMOTE = 1001;
+
+	private static final int DESTINATION = 2002;
+
+	private EmbeddedChannel channel;
+
+	private RelayHandler handler;
+
+	private Connection connection;
+
+	@BeforeEach
+	void setup() {
+		handler = new RelayHandler();
+		channel = new EmbeddedChannel(handler);
+		channel.attr(ChannelConstant.HANDSHAKE_FUTURE).set(channel.eventLoop().newPromise());
+		channel.attr(ChannelConstant.HANDSHAKE_FUTURE).get().setSuccess(null);
+
+		connection = ConnectionStore.create(channel);
+		connection.set(ConnectionOid.REMOTE_CVID, REMOTE);
+	}
+
+	private static ByteBuf frame(int from) {
+		return Unpooled.wrappedBuffer(MSG.newBuilder().setTo(DESTINATION).setFrom(from).setId(1).build().toByteArray());
+	}
+
+	@Test
+	@DisplayName("Drop frames from an unauthenticated connection")
+	void testUnauthenticated() {
+		var frame = frame(REMOTE);
+		channel.writeInbound(frame);
+
+		assertNull(channel.readInbound());
+		assertEquals(1, handler.getRejectedCount());
+		assertEquals(0, handler.getRelayedCount());
+		assertEquals(0, frame.refCnt(), "The frame was not released");
+	}
+
+	@Test
+	@DisplayName("Drop frames with a spoofed source")
+	void testSpoofed() {
+		connection.authenticate();
+
+		var frame = frame(REMOTE + 1);
+		channel.writeInbound(frame);
+
+		assertNull(channel.readInbound());
+		assertEquals(1, handler.getRejectedCount());
+		assertEquals(0, handler.getRelayedCount());
+		assertEquals(0, frame.refCnt(), "The frame was not released");
+	}
+
+	@Test
+	@DisplayName("Pass allowed frames without a route up the pipeline")
+	void testUnroutable() {
+		connection.authenticate();
+
+		var frame = frame(REMOTE);
+		channel.writeInbound(frame);
+
+		assertSame(frame, channel.readInbound());
+		assertEquals(0, handler.getRejectedCount());
+		frame.release();
+	}
+}
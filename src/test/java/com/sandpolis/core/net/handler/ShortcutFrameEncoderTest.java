@@ -0,0 +1,88 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ResourceLeakDetector;
+import io.netty.util.ResourceLeakDetector.Level;
+
+class ShortcutFrameEncoderTest {
+
+	private static Level level;
+
+	@BeforeAll
+	static void enableLeakDetection() {
+		level = ResourceLeakDetector.getLevel();
+		ResourceLeakDetector.setLevel(Level.PARANOID);
+	}
+
+	@AfterAll
+	static void restoreLeakDetection() {
+		ResourceLeakDetector.setLevel(level);
+	}
+
+	private EmbeddedChannel channel;
+
+	private ShortcutFrameEncoder encoder;
+
+	@BeforeEach
+	void setup() {
+		encoder = new ShortcutFrameEncoder();
+		channel = new EmbeddedChannel(encoder);
+	}
+
+	@Test
+	@DisplayName("Prepend the length without copying the frame")
+	void testShortcut() {
+		var body = new byte[300];
+		Arrays.fill(body, (byte) 7);
+
+		ByteBuf frame = channel.alloc().directBuffer(body.length).writeBytes(body);
+		encoder.shortcut(frame);
+
+		ByteBuf out = channel.readOutbound();
+		assertTrue(out instanceof CompositeByteBuf);
+		assertEquals(body.length + 2, out.readableBytes());
+
+		// 300 is encoded as a two byte varint
+		assertEquals((byte) 0xAC, out.readByte());
+		assertEquals((byte) 0x02, out.readByte());
+
+		var written = new byte[body.length];
+		out.readBytes(written);
+		assertTrue(Arrays.equals(body, written));
+
+		out.release();
+		assertEquals(0, frame.refCnt(), "The frame was not released");
+	}
+
+	@Test
+	@DisplayName("Release the frame if the encoder is not in a pipeline")
+	void testShortcutDetached() {
+		ByteBuf frame = channel.alloc().directBuffer(4).writeInt(123);
+
+		assertThrows(IllegalStateException.class, () -> new ShortcutFrameEncoder().shortcut(frame));
+		assertEquals(0, frame.refCnt(), "The frame was not released");
+	}
+}
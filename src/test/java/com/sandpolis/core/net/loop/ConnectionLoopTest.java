@@ -10,12 +10,17 @@
 package com.sandpolis.core.net.loop;
 
 import static com.sandpolis.core.instance.thread.ThreadStore.ThreadStore;
+import static com.sandpolis.core.net.connection.ConnectionStore.ConnectionStore;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.net.InetAddress;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeAll;
@@ -23,10 +28,15 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import com.sandpolis.core.net.channel.ChannelConstant;
 import com.sandpolis.core.net.connection.ConnectionLoop;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
@@ -64,6 +74,57 @@ class ConnectionLoopTest {
 		assertNull(loop.future().getNow());
 	}
 
+	@Test
+	@DisplayName("Attempt parallel connections on closed ports")
+	void testConnectClosedPortParallel() throws InterruptedException {
+		ConnectionLoop loop = new ConnectionLoop(config -> {
+			config.timeout = 100;
+			config.iterationLimit = 1;
+			config.parallel = true;
+			config.stagger = 10;
+			config.address("127.0.0.1", 38904);
+			config.address("127.0.0.1", 38905);
+			config.bootstrap.channel(NioSocketChannel.class).group(new NioEventLoopGroup())
+					.handler(new LoggingHandler());
+		});
+
+		loop.start().future().await(1000, TimeUnit.MILLISECONDS);
+
+		assertTrue(loop.future().isDone());
+		assertFalse(loop.future().isSuccess());
+		assertNull(loop.future().getNow());
+	}
+
+	@Test
+	@DisplayName("Back off once per round of parallel attempts")
+	void testBackoffPerRound() throws InterruptedException {
+		var rounds = new ConcurrentLinkedQueue<Integer>();
+
+		ConnectionLoop loop = new ConnectionLoop(config -> {
+			config.timeout = 100;
+			config.iterationLimit = 7;
+			config.parallel = true;
+			config.stagger = 10;
+			config.backoff = (attempt, previous) -> {
+				rounds.add(attempt);
+				return 10;
+			};
+			config.address("127.0.0.1", 38906);
+			config.address("127.0.0.1", 38907);
+			config.address("127.0.0.1", 38908);
+			config.bootstrap.channel(NioSocketChannel.class).group(new NioEventLoopGroup())
+					.handler(new LoggingHandler());
+		});
+
+		loop.start().future().await(5000, TimeUnit.MILLISECONDS);
+
+		assertTrue(loop.future().isDone());
+		assertFalse(loop.future().isSuccess());
+
+		// Three rounds of three attempts, and no backoff after the last round
+		assertEquals(List.of(1, 2), List.copyOf(rounds));
+	}
+
 	@Test
 	@Disabled
 	@DisplayName("Make a successful connection to a local socket")
@@ -87,4 +148,43 @@ class ConnectionLoopTest {
 		assertTrue(loop.future().isDone());
 		assertTrue(loop.future().isSuccess());
 	}
+
+	@Test
+	@DisplayName("Close the channel of a failed handshake")
+	void testHandshakeFailure() throws InterruptedException {
+
+		new ServerBootstrap().group(new NioEventLoopGroup()).channel(NioServerSocketChannel.class)
+				.childHandler(new LoggingHandler()).bind(InetAddress.getLoopbackAddress(), 23375).sync();
+
+		var channels = new ConcurrentLinkedQueue<Channel>();
+		ConnectionLoop loop = new ConnectionLoop(config -> {
+			config.iterationLimit = 1;
+			config.address("127.0.0.1", 23375);
+			config.bootstrap.channel(NioSocketChannel.class).group(new NioEventLoopGroup())
+					.handler(new ChannelInitializer<Channel>() {
+						@Override
+						protected void initChannel(Channel ch) throws Exception {
+							channels.add(ch);
+							ConnectionStore.create(ch);
+							ch.attr(ChannelConstant.HANDSHAKE_FUTURE).set(ch.eventLoop().newPromise());
+
+							// Fail the handshake without closing the channel
+							ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+								@Override
+								public void channelActive(ChannelHandlerContext ctx) throws Exception {
+									ctx.channel().attr(ChannelConstant.HANDSHAKE_FUTURE).get()
+											.setFailure(new Exception("Handshake refused"));
+								}
+							});
+						}
+					});
+		});
+
+		loop.start().future().await(1000, TimeUnit.MILLISECONDS);
+
+		assertTrue(loop.future().isDone());
+		assertFalse(loop.future().isSuccess());
+		assertFalse(channels.isEmpty());
+		await().atMost(1000, TimeUnit.MILLISECONDS).until(() -> channels.stream().noneMatch(Channel::isOpen));
+	}
 }
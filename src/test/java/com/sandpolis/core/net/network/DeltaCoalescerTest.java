@@ -0,0 +1,81 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sandpolis.core.net.msg.MsgNetwork.LinkType;
+
+class DeltaCoalescerTest {
+
+	@Test
+	@DisplayName("Coalesce a node that joins and leaves in the same batch")
+	void drain_1() {
+		var coalescer = new DeltaCoalescer();
+		coalescer.nodeAdded(1);
+		coalescer.nodeAdded(2);
+		coalescer.nodeRemoved(1);
+
+		var delta = coalescer.drain();
+		assertEquals(1, delta.getNodeAddedCount());
+		assertEquals(2, delta.getNodeAdded(0).getCvid());
+		assertEquals(0, delta.getNodeRemovedCount());
+		assertTrue(coalescer.isEmpty());
+	}
+
+	@Test
+	@DisplayName("Coalesce a node that leaves and rejoins in the same batch")
+	void drain_2() {
+		var coalescer = new DeltaCoalescer();
+		coalescer.nodeRemoved(1);
+		coalescer.nodeAdded(1);
+
+		var delta = coalescer.drain();
+		assertEquals(1, delta.getNodeRemovedCount());
+		assertEquals(1, delta.getNodeAddedCount());
+	}
+
+	@Test
+	@DisplayName("Coalesce repeated link changes between the same pair")
+	void drain_3() {
+		var coalescer = new DeltaCoalescer();
+		coalescer.linkAdded(1, 2, LinkType.CONTROL_TCP);
+		coalescer.linkRemoved(2, 1, LinkType.CONTROL_TCP);
+		coalescer.linkAdded(2, 1, LinkType.TRANSPORT_UDP);
+		coalescer.linkAdded(1, 2, LinkType.TRANSPORT_UDP);
+
+		var delta = coalescer.drain();
+		assertEquals(1, delta.getLinkRemovedCount());
+		assertEquals(LinkType.CONTROL_TCP, delta.getLinkRemoved(0).getLink());
+		assertEquals(1, delta.getLinkAddedCount());
+		assertEquals(1, delta.getLinkAdded(0).getCvid1());
+		assertEquals(2, delta.getLinkAdded(0).getCvid2());
+		assertEquals(LinkType.TRANSPORT_UDP, delta.getLinkAdded(0).getLink());
+	}
+
+	@Test
+	@DisplayName("Remove only one type of link between a pair")
+	void drain_4() {
+		var coalescer = new DeltaCoalescer();
+		coalescer.linkAdded(1, 2, LinkType.CONTROL_TCP);
+		coalescer.linkAdded(1, 2, LinkType.TRANSPORT_TCP);
+		coalescer.linkRemoved(1, 2, LinkType.TRANSPORT_TCP);
+
+		var delta = coalescer.drain();
+		assertEquals(1, delta.getLinkRemovedCount());
+		assertEquals(LinkType.TRANSPORT_TCP, delta.getLinkRemoved(0).getLink());
+		assertEquals(1, delta.getLinkAddedCount());
+		assertEquals(LinkType.CONTROL_TCP, delta.getLinkAdded(0).getLink());
+	}
+}
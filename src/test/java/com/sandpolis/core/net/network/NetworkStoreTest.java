@@ -9,9 +9,33 @@
 //============================================================================//
 package com.sandpolis.core.net.network;
 
+import static com.sandpolis.core.net.connection.ConnectionStore.ConnectionStore;
 import static com.sandpolis.core.net.network.NetworkStore.NetworkStore;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sandpolis.core.instance.Metatypes.InstanceFlavor;
+import com.sandpolis.core.instance.Metatypes.InstanceType;
+import com.sandpolis.core.instance.state.ConnectionOid;
+import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.connection.Connection;
+import com.sandpolis.core.net.connection.ConnectionStore.SockEstablishedEvent;
+import com.sandpolis.core.net.connection.ConnectionStore.SockLostEvent;
+import com.sandpolis.core.net.exelet.ExeletMethod;
+import com.sandpolis.core.net.msg.MsgNetwork.EV_NetworkDelta;
+import com.sandpolis.core.net.util.CvidUtil;
+
+import io.netty.channel.embedded.EmbeddedChannel;
 
 class NetworkStoreTest {
 
@@ -22,4 +46,159 @@ class NetworkStoreTest {
 			config.cvid = 123;
 		});
 	}
+
+	@Test
+	@DisplayName("Check that topology changes publish a new snapshot")
+	void snapshot_1() {
+		var before = NetworkStore.getNetwork();
+		assertEquals(Set.of(123), before.nodes());
+
+		NetworkStore.setCvid(456);
+		await().atMost(5, TimeUnit.SECONDS).until(() -> NetworkStore.getNetwork() != before);
+		var after = NetworkStore.getNetwork();
+
+		// The old snapshot must not observe the change
+		assertEquals(Set.of(123), before.nodes());
+		assertEquals(Set.of(456), after.nodes());
+		assertTrue(NetworkStore.getDirect(456).isEmpty());
+		assertFalse(NetworkStore.getPreferredServer().isPresent());
+	}
+
+	@Test
+	@DisplayName("Apply a delta that another store broadcast")
+	void delta_1() throws Exception {
+		int local = CvidUtil.cvid(InstanceType.CLIENT, InstanceFlavor.GENERIC);
+		int server = CvidUtil.cvid(InstanceType.SERVER, InstanceFlavor.GENERIC);
+		int client = CvidUtil.cvid(InstanceType.CLIENT, InstanceFlavor.GENERIC);
+
+		NetworkStore.init(config -> {
+			config.cvid = local;
+		});
+
+		var serverStore = new NetworkStore();
+		serverStore.init(config -> {
+			config.cvid = server;
+		});
+
+		// The server is connected to this instance and to another client
+		var serverToLocal = new EmbeddedChannel();
+		serverStore.onSockEstablished(new SockEstablishedEvent(connection(serverToLocal, local)));
+		serverStore.onSockEstablished(new SockEstablishedEvent(connection(new EmbeddedChannel(), client)));
+
+		var localToServer = connection(new EmbeddedChannel(), server);
+		NetworkStore.onSockEstablished(new SockEstablishedEvent(localToServer));
+
+		// Deliver the full topology and the server's broadcast the same way
+		// ExeletHandler would
+		await().atMost(5, TimeUnit.SECONDS).until(() -> serverToLocal.outboundMessages().size() == 2);
+		var exelet = new ExeletMethod(NetworkExelet.class.getMethod("onNetworkDelta", EV_NetworkDelta.class));
+		exelet.accept(localToServer, serverToLocal.readOutbound());
+		exelet.accept(localToServer, serverToLocal.readOutbound());
+
+		// The other client is now reachable through the server
+		await().atMost(5, TimeUnit.SECONDS).until(() -> NetworkStore.nextHop(client) != null);
+		assertEquals(server, NetworkStore.nextHop(client).cvid());
+		assertSame(localToServer, NetworkStore.nextHop(client).link());
+	}
+
+	@Test
+	@DisplayName("Send the full topology to a new neighbor")
+	void delta_2() throws Exception {
+		int local = CvidUtil.cvid(InstanceType.CLIENT, InstanceFlavor.GENERIC);
+		int server = CvidUtil.cvid(InstanceType.SERVER, InstanceFlavor.GENERIC);
+		int client = CvidUtil.cvid(InstanceType.CLIENT, InstanceFlavor.GENERIC);
+
+		NetworkStore.init(config -> {
+			config.cvid = local;
+		});
+
+		var serverStore = new NetworkStore();
+		serverStore.init(config -> {
+			config.cvid = server;
+		});
+
+		// The other client was connected long before this instance
+		var serverToClient = new EmbeddedChannel();
+		serverStore.onSockEstablished(new SockEstablishedEvent(connection(serverToClient, client)));
+		await().atMost(5, TimeUnit.SECONDS).until(() -> serverToClient.outboundMessages().size() == 2);
+
+		var serverToLocal = new EmbeddedChannel();
+		serverStore.onSockEstablished(new SockEstablishedEvent(connection(serverToLocal, local)));
+
+		var localToServer = connection(new EmbeddedChannel(), server);
+		NetworkStore.onSockEstablished(new SockEstablishedEvent(localToServer));
+
+		// The first message describes the existing link to the other client
+		await().atMost(5, TimeUnit.SECONDS).until(() -> !serverToLocal.outboundMessages().isEmpty());
+		new ExeletMethod(NetworkExelet.class.getMethod("onNetworkDelta", EV_NetworkDelta.class)).accept(localToServer,
+				serverToLocal.readOutbound());
+
+		await().atMost(5, TimeUnit.SECONDS).until(() -> NetworkStore.nextHop(client) != null);
+		assertEquals(server, NetworkStore.nextHop(client).cvid());
+	}
+
+	@Test
+	@DisplayName("Prefer a pinned server while it's connected")
+	void preferred_1() {
+		int server1 = CvidUtil.cvid(InstanceType.SERVER, InstanceFlavor.GENERIC);
+		int server2 = CvidUtil.cvid(InstanceType.SERVER, InstanceFlavor.GENERIC);
+
+		NetworkStore.init(config -> {
+			config.cvid = CvidUtil.cvid(InstanceType.CLIENT, InstanceFlavor.GENERIC);
+		});
+		NetworkStore.onSockEstablished(new SockEstablishedEvent(connection(new EmbeddedChannel(), server1)));
+		NetworkStore.onSockEstablished(new SockEstablishedEvent(connection(new EmbeddedChannel(), server2)));
+		await().atMost(5, TimeUnit.SECONDS).until(() -> NetworkStore.getServerScores().size() == 2);
+
+		NetworkStore.setPreferredServer(server1);
+		assertEquals(server1, NetworkStore.getPreferredServer().get());
+		NetworkStore.setPreferredServer(server2);
+		assertEquals(server2, NetworkStore.getPreferredServer().get());
+
+		// Scores decide while the pinned server is not connected
+		NetworkStore.setPreferredServer(123);
+		assertTrue(Set.of(server1, server2).contains(NetworkStore.getPreferredServer().get()));
+	}
+
+	@Test
+	@DisplayName("Route over a local link as soon as it changes")
+	void local_1() {
+		int server = CvidUtil.cvid(InstanceType.SERVER, InstanceFlavor.GENERIC);
+
+		NetworkStore.init(config -> {
+			config.cvid = CvidUtil.cvid(InstanceType.CLIENT, InstanceFlavor.GENERIC);
+		});
+
+		// Local changes must not wait for the delta interval
+		var link = connection(new EmbeddedChannel(), server);
+		NetworkStore.onSockEstablished(new SockEstablishedEvent(link));
+		await().atMost(500, TimeUnit.MILLISECONDS).until(() -> NetworkStore.nextHop(server) != null);
+		assertSame(link, NetworkStore.nextHop(server).link());
+		assertEquals(server, NetworkStore.getPreferredServer().get());
+
+		NetworkStore.onSockLost(new SockLostEvent(link));
+		await().atMost(500, TimeUnit.MILLISECONDS).until(() -> NetworkStore.nextHop(server) == null);
+		assertFalse(NetworkStore.getPreferredServer().isPresent());
+	}
+
+	@Test
+	@DisplayName("Fail a message that has no route")
+	void deliver_1() {
+		NetworkStore.init(config -> {
+			config.cvid = CvidUtil.cvid(InstanceType.CLIENT, InstanceFlavor.GENERIC);
+		});
+
+		var future = NetworkStore.route(MSG.newBuilder().setTo(456));
+		assertTrue(future.isDone());
+		assertTrue(future.cause() instanceof NoRouteException);
+
+		future = NetworkStore.deliver(MSG.newBuilder().setTo(456));
+		assertTrue(future.cause() instanceof NoRouteException);
+	}
+
+	private static Connection connection(EmbeddedChannel channel, int remote) {
+		var connection = ConnectionStore.create(channel);
+		connection.set(ConnectionOid.REMOTE_CVID, remote);
+		return connection;
+	}
 }
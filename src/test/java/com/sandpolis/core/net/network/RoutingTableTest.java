@@ -0,0 +1,168 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.graph.MutableNetwork;
+import com.google.common.graph.NetworkBuilder;
+
+class RoutingTableTest {
+
+	private static final Map<String, Double> COST = Map.of("1-2", 1.0, "2-3", 1.0, "1-4", 1.0, "4-3", 5.0, "3-5",
+			1.0, "1-3", 10.0);
+
+	private static MutableNetwork<Integer, String> network() {
+		MutableNetwork<Integer, String> network = NetworkBuilder.undirected().allowsParallelEdges(true).build();
+		for (var link : COST.keySet()) {
+			var nodes = link.split("-");
+			network.addEdge(Integer.parseInt(nodes[0]), Integer.parseInt(nodes[1]), link);
+		}
+		return network;
+	}
+
+	@Test
+	@DisplayName("Compute next hops over multiple paths")
+	void compute_1() {
+		var table = RoutingTable.compute(network(), 1, COST::get);
+
+		assertEquals(4, table.size());
+		assertEquals(2, table.next(2).cvid());
+		assertEquals(4, table.next(4).cvid());
+
+		// The direct link is more expensive than going through 2
+		assertEquals(2, table.next(3).cvid());
+		assertEquals("1-2", table.next(3).link());
+		assertEquals(2, table.next(5).cvid());
+	}
+
+	@Test
+	@DisplayName("Compute next hops when a link is lost")
+	void compute_2() {
+		var network = network();
+		network.removeEdge("1-2");
+
+		var table = RoutingTable.compute(network, 1, COST::get);
+
+		assertNull(table.next(1));
+		assertEquals(4, table.next(2).cvid());
+		assertEquals(4, table.next(3).cvid());
+	}
+
+	@Test
+	@DisplayName("Compute next hops from an unknown node")
+	void compute_3() {
+		var table = RoutingTable.compute(network(), 9, COST::get);
+
+		assertEquals(0, table.size());
+		assertNull(table.next(1));
+	}
+
+	@Test
+	@DisplayName("Compare local and remote links with the same cost model")
+	void compute_4() {
+		MutableNetwork<Integer, String> local = NetworkBuilder.undirected().build();
+		local.addEdge(1, 2, "1-2");
+		local.addEdge(1, 3, "1-3");
+
+		// A long remote path behind the cheap local link and a short one behind the
+		// expensive local link
+		MutableNetwork<Integer, String> remote = NetworkBuilder.undirected().build();
+		remote.addEdge(2, 4, "2-4");
+		remote.addEdge(4, 5, "4-5");
+		remote.addEdge(5, 6, "5-6");
+		remote.addEdge(6, 7, "6-7");
+		remote.addEdge(7, 9, "7-9");
+		remote.addEdge(3, 9, "3-9");
+
+		var table = RoutingTable.compute(local, remote, 1, Map.of("1-2", 10.0, "1-3", 100.0)::get, link -> 50.0);
+
+		assertEquals(7, table.size());
+		assertEquals(2, table.next(5).cvid());
+		assertEquals(3, table.next(9).cvid());
+		assertEquals("1-3", table.next(9).link());
+	}
+
+	@Test
+	@DisplayName("Update next hops when a link is added")
+	void withLink_1() {
+		var network = network();
+		network.removeEdge("1-2");
+		var table = RoutingTable.compute(network, 1, COST::get);
+
+		network.addEdge(1, 2, "1-2");
+		var updated = table.withLink(network, null, 1, "1-2", COST::get, link -> 0);
+
+		assertEquals(4, updated.size());
+		assertEquals(2, updated.next(3).cvid());
+		assertEquals("1-2", updated.next(5).link());
+
+		// The original table is unchanged
+		assertEquals(4, table.next(3).cvid());
+	}
+
+	@Test
+	@DisplayName("Keep the table when an added link is more expensive")
+	void withLink_2() {
+		var network = network();
+		var table = RoutingTable.compute(network, 1, COST::get);
+
+		network.addEdge(1, 3, "1-3b");
+		assertSame(table, table.withLink(network, null, 1, "1-3b", Map.of("1-3b", 20.0)::get, link -> 0));
+	}
+
+	@Test
+	@DisplayName("Update next hops when a link is lost")
+	void withoutLink_1() {
+		var network = network();
+		var table = RoutingTable.compute(network, 1, COST::get);
+
+		network.removeEdge("1-2");
+		var updated = table.withoutLink(network, null, 1, "1-2", COST::get, link -> 0);
+
+		// Same as computing the table from scratch
+		var expected = RoutingTable.compute(network, 1, COST::get);
+		assertEquals(expected.size(), updated.size());
+		for (int node : network.nodes()) {
+			if (node != 1) {
+				assertEquals(expected.next(node), updated.next(node));
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Fall back to a parallel link when a link is lost")
+	void withoutLink_2() {
+		MutableNetwork<Integer, String> local = NetworkBuilder.undirected().allowsParallelEdges(true).build();
+		local.addEdge(1, 2, "a");
+		local.addEdge(1, 2, "b");
+
+		MutableNetwork<Integer, String> remote = NetworkBuilder.undirected().build();
+		remote.addEdge(2, 3, "2-3");
+
+		var cost = Map.of("a", 1.0, "b", 2.0);
+		var table = RoutingTable.compute(local, remote, 1, cost::get, link -> 1.0);
+		assertEquals("a", table.next(3).link());
+
+		local.removeEdge("a");
+		var updated = table.withoutLink(local, remote, 1, "a", cost::get, link -> 1.0);
+
+		assertEquals(2, updated.size());
+		assertEquals("b", updated.next(2).link());
+		assertEquals("b", updated.next(3).link());
+	}
+}
@@ -0,0 +1,71 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ServerSelectorTest {
+
+	@Test
+	@DisplayName("Check that load increases a server's score")
+	void score_1() {
+		double idle = ServerSelector.score(10, 0, 0);
+
+		assertTrue(ServerSelector.score(20, 0, 0) > idle);
+		assertTrue(ServerSelector.score(10, 8, 0) > idle);
+		assertTrue(ServerSelector.score(10, 0, 1 << 20) > idle);
+		assertEquals(ServerSelector.DEFAULT_LATENCY, ServerSelector.score(-1, 0, 0));
+	}
+
+	@Test
+	@DisplayName("Select a server when there are none")
+	void select_1() {
+		assertEquals(0, ServerSelector.select(Map.of(), 0));
+		assertEquals(0, ServerSelector.select(Map.of(), 100));
+	}
+
+	@Test
+	@DisplayName("Keep the current server while it's healthy")
+	void select_2() {
+		var scores = Map.of(1, 10.0, 2, 15.0);
+
+		assertEquals(2, ServerSelector.select(scores, 2));
+	}
+
+	@Test
+	@DisplayName("Fail over when the current server degrades")
+	void select_3() {
+		var scores = Map.of(1, 10.0, 2, 50.0);
+
+		assertEquals(1, ServerSelector.select(scores, 2));
+	}
+
+	@Test
+	@DisplayName("Spread selections across equivalent servers")
+	void select_4() {
+		var scores = Map.of(1, 10.0, 2, 11.0, 3, 100.0);
+		var selected = new HashSet<Integer>();
+
+		for (int i = 0; i < 1000; i++) {
+			selected.add(ServerSelector.select(scores, 0));
+		}
+
+		assertEquals(2, selected.size());
+		assertTrue(selected.contains(1));
+		assertTrue(selected.contains(2));
+	}
+}
@@ -0,0 +1,165 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.stream;
+
+import static com.sandpolis.core.net.connection.ConnectionStore.ConnectionStore;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.connection.Connection;
+import com.sandpolis.core.net.msg.MsgNetwork.RQ_Ping;
+import com.sandpolis.core.net.msg.MsgNetwork.RS_Ping;
+import com.sandpolis.core.net.msg.MsgStream.EV_StreamCredit;
+import com.sandpolis.core.net.util.MsgUtil;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+
+class StreamDemuxHandlerTest {
+
+	private EmbeddedChannel channel;
+
+	private StreamDemuxHandler demux;
+
+	private Connection connection;
+
+	@BeforeEach
+	void setup() {
+		demux = new StreamDemuxHandler();
+		channel = new EmbeddedChannel(demux);
+		connection = ConnectionStore.create(channel);
+	}
+
+	@Test
+	@DisplayName("Route stream events to the matching adapter")
+	void testRouteInbound() {
+		var adapter = new InboundStreamAdapter<>(12, connection, RS_Ping.class);
+		assertEquals(1, demux.getStreamCount());
+
+		channel.writeInbound(MsgUtil.ev(12, RS_Ping.newBuilder()).build());
+		assertNull(channel.readInbound(), "Stream event passed the handler");
+
+		channel.writeInbound(MsgUtil.ev(13, RS_Ping.newBuilder()).build());
+		assertNotNull(channel.readInbound(), "Unrelated message was consumed");
+
+		channel.writeInbound(MsgUtil.ev(12, RQ_Ping.newBuilder()).build());
+		assertNotNull(channel.readInbound(), "Message of the wrong type was consumed");
+
+		adapter.close();
+	}
+
+	@Test
+	@DisplayName("Route stream credit to the matching adapter")
+	void testRouteCredit() {
+		var adapter = new OutboundStreamAdapter<RS_Ping>(12, connection);
+
+		channel.writeInbound(MsgUtil.ev(12, EV_StreamCredit.newBuilder().setCredits(4)).build());
+		assertNull(channel.readInbound(), "Stream credit passed the handler");
+
+		adapter.close();
+		channel.writeInbound(MsgUtil.ev(12, EV_StreamCredit.newBuilder().setCredits(4)).build());
+		assertNotNull(channel.readInbound(), "Closed stream consumed a message");
+	}
+
+	@Test
+	@DisplayName("Unregister closed adapters")
+	void testClose() {
+		var adapter = new InboundStreamAdapter<>(12, connection, RS_Ping.class);
+		adapter.close();
+		assertEquals(0, demux.getStreamCount());
+
+		channel.writeInbound(MsgUtil.ev(12, RS_Ping.newBuilder()).build());
+		assertNotNull(channel.readInbound(), "Closed stream consumed a message");
+	}
+
+	@Test
+	@DisplayName("Reject duplicate stream IDs")
+	void testDuplicate() {
+		var adapter = new InboundStreamAdapter<>(12, connection, RS_Ping.class);
+		assertThrows(IllegalArgumentException.class, () -> new InboundStreamAdapter<>(12, connection, RS_Ping.class));
+
+		adapter.close();
+	}
+
+	@Test
+	@DisplayName("Grant credit once subscribers have consumed events")
+	void testCreditFromConsumer() {
+		demux.enableCredit();
+		var adapter = new InboundStreamAdapter<>(12, connection, RS_Ping.class);
+
+		var consume = new CountDownLatch(1);
+		adapter.subscribe(new Subscriber<RS_Ping>() {
+
+			@Override
+			public void onSubscribe(Subscription subscription) {
+				subscription.request(Long.MAX_VALUE);
+			}
+
+			@Override
+			public void onNext(RS_Ping item) {
+				try {
+					consume.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+			}
+
+			@Override
+			public void onComplete() {
+			}
+		});
+
+		// A stalled subscriber neither blocks the channel nor earns credit
+		for (int i = 0; i < 40; i++)
+			channel.writeInbound(MsgUtil.ev(12, RS_Ping.newBuilder()).build());
+		assertNull(channel.readOutbound(), "Credit was granted before consumption");
+
+		consume.countDown();
+		await().atMost(5, TimeUnit.SECONDS).until(() -> channel.outboundMessages().size() == 1);
+		MSG credit = channel.readOutbound();
+		assertEquals(32, MsgUtil.unpack(credit, EV_StreamCredit.class).getCredits());
+
+		adapter.close();
+	}
+
+	@Test
+	@DisplayName("Send without credit to instances that don't support it")
+	void testCreditUnsupported() {
+		var source = new SubmissionPublisher<RS_Ping>();
+		var adapter = new OutboundStreamAdapter<RS_Ping>(12, connection);
+		source.subscribe(adapter);
+
+		for (int i = 0; i < 100; i++)
+			source.submit(RS_Ping.newBuilder().build());
+
+		// More than a window is sent without any credit
+		await().atMost(5, TimeUnit.SECONDS).until(() -> channel.outboundMessages().size() == 100);
+
+		adapter.close();
+		source.close();
+	}
+}
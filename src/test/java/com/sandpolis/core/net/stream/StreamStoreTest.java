@@ -0,0 +1,107 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.stream;
+
+import static com.sandpolis.core.net.connection.ConnectionStore.ConnectionStore;
+import static com.sandpolis.core.net.stream.StreamStore.StreamStore;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.connection.Connection;
+import com.sandpolis.core.net.msg.MsgNetwork.RS_Ping;
+import com.sandpolis.core.net.msg.MsgStream.RQ_StreamStop;
+import com.sandpolis.core.net.util.MsgUtil;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+
+class StreamStoreTest {
+
+	private static class TestSource extends StreamSource<RS_Ping> {
+
+		boolean stopped;
+
+		@Override
+		public void start() {
+		}
+
+		@Override
+		public void stop() {
+			stopped = true;
+		}
+	}
+
+	private EmbeddedChannel channel;
+
+	private Connection connection;
+
+	@BeforeEach
+	void setup() {
+		StreamStore.init(config -> {
+		});
+
+		channel = new EmbeddedChannel(new StreamDemuxHandler());
+		connection = ConnectionStore.create(channel);
+	}
+
+	@Test
+	@DisplayName("Stop a source when its only subscriber is stopped")
+	void cascade_1() {
+		var source = new TestSource();
+		StreamStore.add(source, new OutboundStreamAdapter<>(5, connection));
+
+		StreamStore.stop(5);
+
+		assertTrue(source.stopped);
+		assertTrue(source.isClosed());
+		assertEquals(0, StreamStore.getMetadata().sourceSize());
+		assertEquals(0, StreamStore.getMetadata().outboundSize());
+	}
+
+	@Test
+	@DisplayName("Keep a multicast source while it still has subscribers")
+	void cascade_2() {
+		var source = new TestSource();
+		StreamStore.add(source, new OutboundStreamAdapter<>(5, connection));
+		StreamStore.add(source, new OutboundStreamAdapter<>(6, connection));
+
+		StreamStore.stop(5);
+
+		assertFalse(source.stopped);
+		assertEquals(1, StreamStore.getMetadata().sourceSize());
+		assertEquals(1, StreamStore.getMetadata().outboundSize());
+	}
+
+	@Test
+	@DisplayName("Stop the remote publisher when an inbound stream is stopped")
+	void cascade_3() {
+		var sink = new StreamSink<RS_Ping>() {
+			@Override
+			public void onComplete() {
+				// Don't stop stream 0 asynchronously
+			}
+		};
+		StreamStore.add(new InboundStreamAdapter<>(7, connection, RS_Ping.class), sink);
+
+		StreamStore.stop(7);
+
+		MSG rq = channel.readOutbound();
+		assertEquals(7, MsgUtil.unpack(rq, RQ_StreamStop.class).getId());
+		assertNull(channel.readOutbound());
+		assertEquals(0, StreamStore.getMetadata().inboundSize());
+		assertEquals(0, StreamStore.getMetadata().sinkSize());
+	}
+}
@@ -0,0 +1,59 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.hash.Hashing;
+import com.google.protobuf.ByteString;
+import com.sandpolis.core.net.Message.MSG;
+import com.sandpolis.core.net.msg.MsgCvid.RQ_Cvid;
+import com.sandpolis.core.net.msg.MsgCvid.RS_Cvid;
+
+class MsgUtilTest {
+
+	@Test
+	@DisplayName("Check that builders and messages have the same payload type")
+	void getPayloadType_1() {
+		assertEquals(MsgUtil.getPayloadType(RQ_Cvid.class), MsgUtil.getPayloadType(RQ_Cvid.Builder.class));
+		assertEquals(MsgUtil.getPayloadType(RQ_Cvid.newBuilder()),
+				MsgUtil.getPayloadType(RQ_Cvid.getDefaultInstance()));
+		assertNotEquals(MsgUtil.getPayloadType(RQ_Cvid.class), MsgUtil.getPayloadType(RS_Cvid.class));
+	}
+
+	@Test
+	@DisplayName("Check that payload types are derived from the message name")
+	void getPayloadType_2() {
+		assertEquals(Hashing.murmur3_32().hashUnencodedChars(RQ_Cvid.class.getName()).asInt(),
+				MsgUtil.getPayloadType(RQ_Cvid.Builder.class));
+	}
+
+	@Test
+	@DisplayName("Unpack a packed payload")
+	void unpack_1() {
+		var rs = RS_Cvid.newBuilder().setCvid(123).setServerCvid(456).setServerUuid("uuid").build();
+
+		assertEquals(rs, MsgUtil.unpack(MsgUtil.pack(MsgUtil.rs(1), rs).build(), RS_Cvid.class));
+		assertEquals(RS_Cvid.getDefaultInstance(), MsgUtil.unpack(MSG.getDefaultInstance(), RS_Cvid.class));
+	}
+
+	@Test
+	@DisplayName("Unpack an invalid payload")
+	void unpack_2() {
+		var msg = MSG.newBuilder().setPayload(ByteString.copyFrom(new byte[] { -1 })).build();
+
+		assertThrows(IllegalArgumentException.class, () -> MsgUtil.unpack(msg, RS_Cvid.class));
+	}
+}
@@ -0,0 +1,72 @@
+//============================================================================//
+//                                                                            //
+//                         Copyright © 2015 Sandpolis                         //
+//                                                                            //
+//  This source file is subject to the terms of the Mozilla Public License    //
+//  version 2. You may not use this file except in compliance with the MPL    //
+//  as published by the Mozilla Foundation.                                   //
+//                                                                            //
+//============================================================================//
+package com.sandpolis.core.net.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class StripedIntObjectMapTest {
+
+	@Test
+	@DisplayName("Put, get, and remove entries")
+	void testBasic() {
+		var map = new StripedIntObjectMap<String>(4);
+
+		assertNull(map.put(1, "a"));
+		assertNull(map.putIfAbsent(-7, "b"));
+		assertEquals("a", map.putIfAbsent(1, "c"));
+		assertEquals("a", map.put(1, "d"));
+		assertEquals(2, map.size());
+
+		assertEquals("d", map.get(1));
+		assertEquals("b", map.get(-7));
+		assertNull(map.get(2));
+
+		assertFalse(map.remove(1, "a"));
+		assertFalse(map.remove(2, null));
+		assertTrue(map.remove(1, "d"));
+		assertEquals("b", map.remove(-7));
+		assertNull(map.remove(-7));
+		assertEquals(0, map.size());
+	}
+
+	@Test
+	@DisplayName("Add entries from many threads at once")
+	void testConcurrent() {
+		var map = new StripedIntObjectMap<Integer>();
+		var added = new AtomicInteger();
+
+		var tasks = new ArrayList<CompletableFuture<Void>>();
+		for (int t = 0; t < 8; t++) {
+			tasks.add(CompletableFuture.runAsync(() -> {
+				// Every thread competes for the same keys
+				for (int i = 0; i < 10000; i++) {
+					if (map.putIfAbsent(i, i) == null)
+						added.incrementAndGet();
+				}
+			}));
+		}
+		tasks.forEach(CompletableFuture::join);
+
+		assertEquals(10000, added.get());
+		assertEquals(10000, map.size());
+		for (int i = 0; i < 10000; i++)
+			assertEquals(Integer.valueOf(i), map.get(i));
+	}
+}